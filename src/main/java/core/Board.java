@@ -1,28 +1,29 @@
 package core;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public class Board implements Cloneable {
-    private Stack<Card> stock;
-    private Stack<Card> waste;
+    // Bits ajoutés au-dessus du coup encodé dans un enregistrement d'annulation
+    // (au-dessus de tous les bits de PackedMove, drapeau des coups composés compris)
+    private static final int FLIPPED = 1 << 24;
+    private static final int RECYCLED_SHIFT = 25; // Jusqu'à 24 cartes recyclées : bits 25-29
+
+    private Talon talon; // Pioche + défausse
     private List<Foundation> foundations;
     private List<Tableau> tableaux;
 
     public Board() {
-        stock = new Stack<>();
-        waste = new Stack<>();
+        talon = new Talon();
         foundations = new ArrayList<>();
         tableaux = new ArrayList<>();
         for (Suit suit : Suit.values()) foundations.add(new Foundation(suit));
-        for (int i = 0; i < 7; i++) tableaux.add(new Tableau());
+        for (int i = 0; i < 7; i++) tableaux.add(new Tableau(i));
     }
 
     public void newGame(long seed) {
         Deck deck = new Deck();
         deck.shuffleWithSeed(seed);
-        stock.clear();
-        waste.clear();
+        talon.clear();
         foundations.forEach(Pile::clear);
         tableaux.forEach(Pile::clear);
 
@@ -30,72 +31,94 @@ public class Board implements Cloneable {
             Tableau tableau = tableaux.get(i);
             for (int j = 0; j <= i; j++) {
                 Card card = deck.draw();
-                if (j == i) card.flip();
-                tableau.addCard(card);
+                tableau.addCard(j == i ? card.flipped() : card);
             }
         }
-        while (!deck.isEmpty()) stock.push(deck.draw());
+        while (!deck.isEmpty()) talon.pushStock(deck.draw());
+        rehash();
     }
 
     // --- 1. GÉNÉRATION DES COUPS VALIDES ---
 
     public List<Move> getValidMoves() {
-        List<Move> moves = new ArrayList<>();
+        int[] packed = new int[PackedMove.MAX_MOVES];
+        int count = generateMoves(packed);
+        List<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) moves.add(PackedMove.toMove(packed[i]));
+        return moves;
+    }
+
+    // Version sans objet Move ni allocation : écrit les coups encodés (PackedMove) dans 'out', qui doit
+    // avoir au moins PackedMove.MAX_MOVES cases, et renvoie leur nombre. Ne modifie pas le plateau.
+    public int generateMoves(int[] out) {
+        int n = 0;
 
         // A. Piocher ou Recycler
-        if (!stock.isEmpty()) {
-            moves.add(new Move(Move.MoveType.STOCK_TO_WASTE, null, -1, -1));
-        } else if (!waste.isEmpty()) {
-            moves.add(new Move(Move.MoveType.RECYCLE_WASTE, null, -1, -1));
+        if (talon.stockSize() > 0) {
+            out[n++] = PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1);
+        } else if (talon.wasteSize() > 0) {
+            out[n++] = PackedMove.of(Move.MoveType.RECYCLE_WASTE, -1, -1, -1, 1);
         }
 
         // B. Défausse vers Tableau ou Fondation
-        if (!waste.isEmpty()) {
-            Card wasteCard = waste.peek();
+        if (talon.wasteSize() > 0) {
+            Card wasteCard = talon.peekWaste();
+            int code = wasteCard.getCode();
 
             // Vers Fondation ?
             for (int i = 0; i < 4; i++) {
                 if (foundations.get(i).canAddCard(wasteCard))
-                    moves.add(new Move(Move.MoveType.WASTE_TO_FOUNDATION, wasteCard, -1, i));
+                    out[n++] = PackedMove.of(Move.MoveType.WASTE_TO_FOUNDATION, code, -1, i, 1);
             }
             // Vers Tableau ?
             for (int i = 0; i < 7; i++) {
                 if (tableaux.get(i).canAddCard(wasteCard))
-                    moves.add(new Move(Move.MoveType.WASTE_TO_TABLEAU, wasteCard, -1, i));
+                    out[n++] = PackedMove.of(Move.MoveType.WASTE_TO_TABLEAU, code, -1, i, 1);
             }
         }
 
         // C. Tableau vers ...
         for (int srcIdx = 0; srcIdx < 7; srcIdx++) {
             Tableau srcTableau = tableaux.get(srcIdx);
-            if (srcTableau.isEmpty()) continue;
+            int size = srcTableau.size();
+            if (size == 0) continue;
+            List<Card> cards = srcTableau.getCards();
 
             // 1. Vers Fondation (seulement la carte du dessus)
-            Card topCard = srcTableau.peekTopCard();
+            Card topCard = cards.get(size - 1);
             if (topCard.isFaceUp()) {
                 for (int fIdx = 0; fIdx < 4; fIdx++) {
                     if (foundations.get(fIdx).canAddCard(topCard)) {
-                        moves.add(new Move(Move.MoveType.TABLEAU_TO_FOUNDATION, topCard, srcIdx, fIdx));
+                        out[n++] = PackedMove.of(Move.MoveType.TABLEAU_TO_FOUNDATION, topCard.getCode(), srcIdx, fIdx, 1);
                     }
                 }
             }
 
             // 2. Vers un autre Tableau (Séquences)
-            Stack<Card> visibleCards = srcTableau.getVisibleCards();
-            // On teste toutes les sous-séquences possibles (ex: Roi, Roi-Dame, Roi-Dame-Valet...)
-            for (int len = 1; len <= visibleCards.size(); len++) {
-                // La carte à la base de la séquence qu'on veut bouger
-                Card bottomCardOfSequence = visibleCards.get(visibleCards.size() - len);
-
-                for (int destIdx = 0; destIdx < 7; destIdx++) {
-                    if (srcIdx == destIdx) continue; // Pas sur soi-même
-
-                    if (tableaux.get(destIdx).canAddCard(bottomCardOfSequence)) {
-                        moves.add(new Move(Move.MoveType.TABLEAU_TO_TABLEAU, bottomCardOfSequence, srcIdx, destIdx)
-                                .setSequenceLength(len));
+            // Une colonne n'accepte que deux cartes (rang juste en dessous, autre couleur), ou les
+            // quatre Rois si elle est vide : on regarde directement si l'une d'elles est visible
+            // dans la colonne source (masque tenu à jour par la pile), au lieu d'essayer chaque
+            // longueur de séquence. Sa place n'est cherchée que si elle y est.
+            int faceDownCount = srcTableau.getFaceDownCount();
+            long visible = srcTableau.getFaceUpMask();
+            int first = n;
+            for (int destIdx = 0; destIdx < 7; destIdx++) {
+                if (srcIdx == destIdx) continue; // Pas sur soi-même
+
+                Tableau dest = tableaux.get(destIdx);
+                long wanted = (dest.isEmpty() ? Rules.KINGS : Rules.acceptedBy(dest.peekTopCard().getCode())) & visible;
+
+                for (; wanted != 0; wanted &= wanted - 1) {
+                    int code = Long.numberOfTrailingZeros(wanted);
+                    int index = size - 1;
+                    while (index >= faceDownCount && cards.get(index).getCode() != code) index--;
+                    if (index >= faceDownCount) {
+                        out[n++] = PackedMove.of(Move.MoveType.TABLEAU_TO_TABLEAU, code, srcIdx, destIdx, size - index);
                     }
                 }
             }
+            // Même ordre qu'avant : par longueur de séquence, puis par colonne cible
+            PackedMove.sortByLengthThenTarget(out, first, n);
         }
 
         // D. Fondation vers Tableau (Stratégique, parfois utile)
@@ -105,65 +128,113 @@ public class Board implements Cloneable {
                 Card card = f.peekTopCard();
                 for (int tIdx = 0; tIdx < 7; tIdx++) {
                     if (tableaux.get(tIdx).canAddCard(card)) {
-                        moves.add(new Move(Move.MoveType.FOUNDATION_TO_TABLEAU, card, fIdx, tIdx));
+                        out[n++] = PackedMove.of(Move.MoveType.FOUNDATION_TO_TABLEAU, card.getCode(), fIdx, tIdx, 1);
                     }
                 }
             }
         }
 
-        return moves;
+        return n;
     }
 
     // --- 2. EXÉCUTION DES COUPS ---
 
     public void applyMove(Move move) {
-        switch (move.getType()) {
-            case STOCK_TO_WASTE -> {
-                Card c = stock.pop();
-                c.flip();
-                waste.push(c);
+        play(move.getType(), move.getSourceIndex(), move.getTargetIndex(), move.getSequenceLength());
+    }
+
+    // Même chose avec un coup encodé par PackedMove (ceux de generateMoves). Les coups composés
+    // (PackedMove.drawsFirst, seulement sur CompactBoard) lèvent IllegalArgumentException.
+    public void applyMove(int move) {
+        requireSingleMove(move);
+        play(PackedMove.type(move), PackedMove.source(move), PackedMove.target(move), PackedMove.length(move));
+    }
+
+    // Joue le coup et renvoie un enregistrement d'annulation (un simple int) :
+    // le coup encodé par PackedMove (sans la carte), plus si une carte a été retournée
+    // et combien de cartes ont été recyclées. undoMove(record) restaure exactement la position.
+    // Permet de jouer puis d'annuler une simulation sur un seul plateau, sans clone().
+    public int applyMoveWithUndo(Move move) {
+        return applyMoveWithUndo(PackedMove.fromMove(move));
+    }
+
+    public int applyMoveWithUndo(int move) {
+        requireSingleMove(move);
+        Move.MoveType type = PackedMove.type(move);
+        int source = PackedMove.source(move);
+        int target = PackedMove.target(move);
+        int length = PackedMove.length(move);
+        int record = PackedMove.of(type, -1, source, target, length);
+        if (type == Move.MoveType.RECYCLE_WASTE) record |= talon.wasteSize() << RECYCLED_SHIFT;
+        if (play(type, source, target, length)) record |= FLIPPED;
+        return record;
+    }
+
+    // Un coup composé jouerait le sommet de la défausse au lieu de la carte à piocher
+    private static void requireSingleMove(int move) {
+        if (PackedMove.drawsFirst(move)) {
+            throw new IllegalArgumentException("Coup composé non jouable sur Board : " + PackedMove.toString(move));
+        }
+    }
+
+    public void undoMove(int record) {
+        int source = PackedMove.source(record);
+        int target = PackedMove.target(record);
+        boolean flipped = (record & FLIPPED) != 0;
+
+        switch (PackedMove.type(record)) {
+            case STOCK_TO_WASTE -> talon.undoDraw();
+            case RECYCLE_WASTE -> talon.undoRecycle(record >>> RECYCLED_SHIFT);
+            case WASTE_TO_FOUNDATION -> talon.pushWaste(foundations.get(target).removeTopCard());
+            case WASTE_TO_TABLEAU -> talon.pushWaste(tableaux.get(target).removeTopCard());
+            case TABLEAU_TO_FOUNDATION -> {
+                Tableau t = tableaux.get(source);
+                if (flipped) t.hideTopCard();
+                t.addCard(foundations.get(target).removeTopCard());
             }
-            case RECYCLE_WASTE -> {
-                while (!waste.isEmpty()) {
-                    Card c = waste.pop();
-                    c.flip();
-                    stock.push(c);
-                }
+            case TABLEAU_TO_TABLEAU -> {
+                Tableau src = tableaux.get(source);
+                if (flipped) src.hideTopCard();
+                tableaux.get(target).moveTopCardsTo(src, PackedMove.length(record));
             }
-            case WASTE_TO_FOUNDATION -> foundations.get(move.getTargetIndex()).addCard(waste.pop());
-            case WASTE_TO_TABLEAU -> tableaux.get(move.getTargetIndex()).addCard(waste.pop());
+            case FOUNDATION_TO_TABLEAU -> foundations.get(source).addCard(tableaux.get(target).removeTopCard());
+        }
+    }
+
+    // Renvoie true si une carte cachée a été retournée
+    private boolean play(Move.MoveType type, int sourceIndex, int targetIndex, int sequenceLength) {
+        switch (type) {
+            // Piocher et recycler ne font que déplacer le curseur du talon
+            case STOCK_TO_WASTE -> talon.draw();
+            case RECYCLE_WASTE -> talon.recycle();
+            case WASTE_TO_FOUNDATION -> foundations.get(targetIndex).addCard(talon.popWaste());
+            case WASTE_TO_TABLEAU -> tableaux.get(targetIndex).addCard(talon.popWaste());
             case TABLEAU_TO_FOUNDATION -> {
-                Tableau t = tableaux.get(move.getSourceIndex());
-                foundations.get(move.getTargetIndex()).addCard(t.removeTopCard());
-                revealNextCard(t);
+                Tableau t = tableaux.get(sourceIndex);
+                foundations.get(targetIndex).addCard(t.removeTopCard());
+                return revealNextCard(t);
             }
             case TABLEAU_TO_TABLEAU -> {
-                Tableau src = tableaux.get(move.getSourceIndex());
-                Tableau dest = tableaux.get(move.getTargetIndex());
-
-                // On récupère les cartes à bouger (attention à l'ordre !)
-                Stack<Card> toMove = new Stack<>();
-                for(int i=0; i < move.getSequenceLength(); i++) {
-                    toMove.push(src.removeTopCard());
-                }
-                // On les remet dans le bon ordre sur la destination
-                while(!toMove.isEmpty()) {
-                    dest.addCard(toMove.pop());
-                }
-                revealNextCard(src);
+                Tableau src = tableaux.get(sourceIndex);
+                // On déplace la séquence d'un bloc (l'ordre est conservé)
+                src.moveTopCardsTo(tableaux.get(targetIndex), sequenceLength);
+                return revealNextCard(src);
             }
             case FOUNDATION_TO_TABLEAU -> {
-                Card c = foundations.get(move.getSourceIndex()).removeTopCard();
-                tableaux.get(move.getTargetIndex()).addCard(c);
+                Card c = foundations.get(sourceIndex).removeTopCard();
+                tableaux.get(targetIndex).addCard(c);
             }
         }
+        return false;
     }
 
     // Si on vide une colonne et qu'il reste une carte cachée en dessous, on la retourne
-    private void revealNextCard(Tableau t) {
+    private boolean revealNextCard(Tableau t) {
         if (!t.isEmpty() && !t.peekTopCard().isFaceUp()) {
-            t.peekTopCard().flip();
+            t.revealTopCard();
+            return true;
         }
+        return false;
     }
 
     // --- 3. MÉTHODES UTILITAIRES ---
@@ -172,31 +243,51 @@ public class Board implements Cloneable {
         return foundations.stream().allMatch(Foundation::isComplete);
     }
 
+    // Ensembles de cartes (bit 'code', voir Rules), tenus à jour par chaque pile comme les clés de Zobrist.
+    // Ex: "les deux cartes qu'accepte c sont-elles déjà en fondation ?"
+    //     (getFoundationMask() & Rules.acceptedBy(c)) == Rules.acceptedBy(c)
+    public long getFaceUpMask() {
+        long mask = talon.wasteMask();
+        for (int i = 0; i < 4; i++) mask |= foundations.get(i).getFaceUpMask();
+        for (int i = 0; i < 7; i++) mask |= tableaux.get(i).getFaceUpMask();
+        return mask;
+    }
+
+    public long getStockMask() {
+        return talon.stockMask();
+    }
+
+    public long getFoundationMask() {
+        long mask = 0;
+        for (int i = 0; i < 4; i++) mask |= foundations.get(i).getCardMask();
+        return mask;
+    }
+
+    // Hash de Zobrist (64 bits) de la position : chaque carte, sa pile, sa hauteur et sa face.
+    // Les clés sont tenues à jour à chaque coup (et à chaque annulation), ici on ne fait que les combiner.
     public long getGameStateHash() {
-        long result = 1;
-        for (Tableau t : tableaux) {
-            result = 31 * result + t.size();
-            if (!t.isEmpty()) result = 31 * result + t.peekTopCard().hashCode();
-        }
-        for (Foundation f : foundations) {
-            result = 31 * result + (f.isEmpty() ? 0 : f.peekTopCard().hashCode());
-        }
-        result = 31 * result + stock.size();
-        if (!waste.isEmpty()) result = 31 * result + waste.peek().hashCode();
+        long result = talon.getZobristKey();
+        for (int i = 0; i < 4; i++) result ^= foundations.get(i).getZobristKey();
+        for (int i = 0; i < 7; i++) result ^= tableaux.get(i).getZobristKey();
         return result;
     }
 
+    // Recalcule toutes les clés de Zobrist (elles sont déjà tenues à jour par chaque pile,
+    // y compris les modifications via getStock() et getWaste() : c'est une vérification)
+    public void rehash() {
+        talon.rehash();
+        foundations.forEach(Pile::rehash);
+        tableaux.forEach(Pile::rehash);
+    }
+
     @Override
     public Board clone() {
         try {
             Board cloned = (Board) super.clone();
 
-            // CORRECTION : Copie profonde carte par carte pour Stock et Waste
-            cloned.stock = new Stack<>();
-            for(Card c : this.stock) cloned.stock.push(c.clone());
-
-            cloned.waste = new Stack<>();
-            for(Card c : this.waste) cloned.waste.push(c.clone());
+            // Copie sur écriture : chaque pile partage ses cartes avec l'original
+            // jusqu'à ce que l'un des deux la modifie
+            cloned.talon = this.talon.copy();
 
             cloned.foundations = new ArrayList<>();
             for (Foundation f : this.foundations) cloned.foundations.add(f.clone());
@@ -211,8 +302,8 @@ public class Board implements Cloneable {
     }
 
     // Getters
-    public Stack<Card> getStock() { return stock; }
-    public Stack<Card> getWaste() { return waste; }
+    public Talon.Side getStock() { return talon.stock(); }
+    public Talon.Side getWaste() { return talon.waste(); }
     public List<Foundation> getFoundations() { return foundations; }
     public List<Tableau> getTableaux() { return tableaux; }
 }
\ No newline at end of file
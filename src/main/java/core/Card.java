@@ -1,11 +1,24 @@
 package core;
 
-import java.util.Objects;
+// Carte immuable. Les 52 cartes existent en deux exemplaires partagés (face cachée / face visible) :
+// Card.of(...) renvoie toujours le même objet, et "retourner" une carte revient à prendre l'autre
+// exemplaire avec flipped(). Copier un plateau ne copie donc que des références.
+public final class Card {
+    private static final Suit[] SUITS = Suit.values();
+    private static final Card[] FACE_DOWN = new Card[52];
+    private static final Card[] FACE_UP = new Card[52];
+
+    static {
+        for (int code = 0; code < 52; code++) {
+            FACE_DOWN[code] = new Card(SUITS[code / 13], code % 13 + 1, false);
+            FACE_UP[code] = new Card(SUITS[code / 13], code % 13 + 1, true);
+        }
+    }
 
-public class Card {
     private final Suit suit;
     private final int rank; // 1 (As) à 13 (Roi)
-    private boolean faceUp; // Est-ce que la carte est visible ?
+    private final boolean faceUp; // Est-ce que la carte est visible ?
+    private final int id; // Code de la carte (0..51), + 52 si elle est visible
 
     public Card(Suit suit, int rank, boolean faceUp) {
         if (rank < 1 || rank > 13)
@@ -13,23 +26,42 @@ public class Card {
         this.suit = suit;
         this.rank = rank;
         this.faceUp = faceUp;
+        this.id = suit.ordinal() * 13 + rank - 1 + (faceUp ? 52 : 0);
     }
 
-    // Constructeur de copie (très important pour l'IA plus tard)
+    // Constructeur de copie (gardé pour compatibilité, préférer Card.of)
     public Card(Card other) {
         this.suit = other.suit;
         this.rank = other.rank;
         this.faceUp = other.faceUp;
+        this.id = other.id;
     }
 
-    public void flip() {
-        faceUp = !faceUp;
+    // Exemplaire partagé d'une carte
+    public static Card of(Suit suit, int rank, boolean faceUp) {
+        if (rank < 1 || rank > 13)
+            throw new IllegalArgumentException("Le rang doit être entre 1 et 13");
+        return of(suit.ordinal() * 13 + rank - 1, faceUp);
+    }
+
+    // Code = couleur * 13 + rang - 1 (0..51)
+    public static Card of(int code, boolean faceUp) {
+        return faceUp ? FACE_UP[code] : FACE_DOWN[code];
+    }
+
+    // La même carte, retournée
+    public Card flipped() {
+        return of(getCode(), !faceUp);
     }
 
     public Suit getSuit() { return suit; }
     public int getRank() { return rank; }
     public boolean isFaceUp() { return faceUp; }
     public boolean isRed() { return suit.isRed(); }
+    public int getCode() { return faceUp ? id - 52 : id; }
+
+    // Identifiant unique carte + face (0..103), pour les clés de Zobrist
+    int id() { return id; }
 
     @Override
     public String toString() {
@@ -42,18 +74,18 @@ public class Card {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
-        Card card = (Card) obj;
-        return rank == card.rank && suit == card.suit && faceUp == card.faceUp;
+        return id == ((Card) obj).id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(suit, rank, faceUp);
+        return id;
     }
 
+    // Immuable : pas besoin de copie
     @Override
     public Card clone() {
-        return new Card(this);
+        return this;
     }
 
 }
@@ -0,0 +1,129 @@
+package core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Pile de cartes sur un tableau de taille fixe, sans verrou (contrairement à java.util.Stack,
+// dont chaque accès est synchronized). Un plateau n'est utilisé que par un seul thread à la fois.
+// C'est aussi une List, pour l'affichage et les tests (get, stream, toString...).
+// copy() est en copie sur écriture : la copie partage le tableau de l'original, et chacune des
+// deux ne le duplique qu'à sa première modification (une pile jamais touchée ne coûte rien).
+public final class CardStack extends AbstractList<Card> implements RandomAccess {
+    private Card[] elements;
+    private int size;
+    private boolean shared; // 'elements' est aussi utilisé par une copie : le dupliquer avant d'écrire
+
+    // La capacité couvre toute position de jeu normale ; elle n'est agrandie que si on la dépasse
+    public CardStack(int capacity) {
+        elements = new Card[capacity];
+    }
+
+    private CardStack(Card[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+        this.shared = true;
+    }
+
+    public Card push(Card card) {
+        if (shared || size == elements.length) own(size + 1);
+        elements[size++] = card;
+        return card;
+    }
+
+    // Les cartes au-dessus de 'size' ne sont pas effacées : elles sont immuables et partagées,
+    // et ne pas écrire évite de dupliquer un tableau partagé.
+    public Card pop() {
+        if (size == 0) throw new EmptyStackException();
+        return elements[--size];
+    }
+
+    public Card peek() {
+        if (size == 0) throw new EmptyStackException();
+        return elements[size - 1];
+    }
+
+    // Déplace les 'count' cartes du dessus sur une autre pile, dans le même ordre (une seule copie)
+    public void moveTopTo(CardStack dest, int count) {
+        int from = size - count;
+        dest.own(dest.size + count);
+        System.arraycopy(elements, from, dest.elements, dest.size, count);
+        dest.size += count;
+        size = from;
+    }
+
+    // Copie en O(1) : le tableau est partagé jusqu'à la première écriture de l'une des deux piles
+    public CardStack copy() {
+        shared = true;
+        return new CardStack(elements, size);
+    }
+
+    // Rend 'elements' propre à cette pile (copie si partagé) avec au moins 'capacity' cases
+    private void own(int capacity) {
+        if (shared) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length));
+            shared = false;
+        } else if (capacity > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length * 2));
+        }
+    }
+
+    // --- List ---
+
+    @Override
+    public Card get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    @Override
+    public Card set(int index, Card card) {
+        Objects.checkIndex(index, size);
+        own(size);
+        Card old = elements[index];
+        elements[index] = card;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean add(Card card) {
+        push(card);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Card card) {
+        Objects.checkIndex(index, size + 1);
+        own(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = card;
+        size++;
+    }
+
+    @Override
+    public Card remove(int index) {
+        Objects.checkIndex(index, size);
+        Card card = elements[index];
+        own(size);
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return card;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+}
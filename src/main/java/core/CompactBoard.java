@@ -0,0 +1,552 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Version compacte du plateau pour les simulations de l'IA.
+// - Une carte = un octet (son code Card.getCode() : couleur * 13 + rang - 1), aucun objet Card.
+// - Les 7 colonnes sont dans un seul tableau d'octets de taille fixe, avec leur taille
+//   et leur nombre de cartes cachées (les cartes cachées sont toujours en bas de la colonne).
+// - Les fondations ne stockent que leur rang (0 = vide, 13 = complète).
+// - Pioche + défausse = une seule séquence avec un curseur :
+//   talon[0..cursor) est la défausse (sommet en cursor - 1),
+//   talon[cursor..talonSize) est la pioche (sommet en cursor).
+// - Chaque carte des tableaux connaît sa case dans columns (position), ce qui permet de trouver
+//   directement les déplacements tableau -> tableau à partir des cartes qu'une colonne accepte.
+// Les règles sont exactement celles de Board (même coups, même ordre, mêmes effets).
+public final class CompactBoard {
+    // 6 cartes cachées + une séquence Roi -> As : une colonne ne dépasse jamais 19 cartes
+    private static final int COLUMN_CAPACITY = 20;
+    private static final int TALON_CAPACITY = 52;
+
+    // Plages d'index des clés de hash (les cartes des colonnes occupent [0, 7 * 20 * 52)).
+    // La défausse est repérée depuis le bas et la pioche depuis le haut du talon : retirer le sommet
+    // de la défausse ne change la clé d'aucune autre carte.
+    private static final long HASH_FACE_DOWN = 7 * COLUMN_CAPACITY * 52;
+    private static final long HASH_FOUNDATION = HASH_FACE_DOWN + 7 * COLUMN_CAPACITY;
+    private static final long HASH_WASTE = HASH_FOUNDATION + 4 * 14;
+    private static final long HASH_STOCK = HASH_WASTE + TALON_CAPACITY * 52;
+
+    private static final Suit[] SUITS = Suit.values();
+    private static final byte[] RANK = new byte[52];
+    private static final byte[] SUIT = new byte[52];
+    private static final boolean[] RED = new boolean[52];
+    private static final int[][] OPPOSITE_SUITS = new int[4][2]; // Les deux couleurs de l'autre teinte
+
+    static {
+        for (int code = 0; code < 52; code++) {
+            RANK[code] = (byte) (code % 13 + 1);
+            SUIT[code] = (byte) (code / 13);
+            RED[code] = SUITS[code / 13].isRed();
+        }
+        for (Suit suit : SUITS) {
+            int n = 0;
+            for (Suit other : SUITS) {
+                if (other.isRed() != suit.isRed()) OPPOSITE_SUITS[suit.ordinal()][n++] = other.ordinal();
+            }
+        }
+    }
+
+    private final byte[] columns = new byte[7 * COLUMN_CAPACITY];
+    private final byte[] columnSize = new byte[7];
+    private final byte[] faceDown = new byte[7];
+    private final byte[] foundationRank = new byte[4];
+    // Case dans columns de chaque carte posée sur un tableau (à relire : elle peut être périmée)
+    private final byte[] position = new byte[52];
+    private final byte[] talon = new byte[TALON_CAPACITY];
+    private int talonSize;
+    private int cursor;
+    private long hash; // Clé de Zobrist de la position, tenue à jour coup par coup (voir hash())
+
+    public CompactBoard() {
+        hash = computeHash(); // Plateau vide
+    }
+
+    // --- CODAGE DES CARTES ---
+
+    public static int rankOf(int code) { return RANK[code]; }
+    public static boolean isRed(int code) { return RED[code]; }
+
+    // --- CONVERSIONS ---
+
+    public static CompactBoard fromBoard(Board board) {
+        CompactBoard compact = new CompactBoard();
+        compact.load(board);
+        return compact;
+    }
+
+    // Recopie une position de Board (sans perte pour toute position atteignable en jeu).
+    // Lève IllegalArgumentException si la position n'a pas de forme compacte.
+    public void load(Board board) {
+        for (int f = 0; f < 4; f++) {
+            Foundation foundation = board.getFoundations().get(f);
+            int rank = 0;
+            for (Card c : foundation.getCards()) {
+                if (c.getSuit() != SUITS[f] || c.getRank() != rank + 1)
+                    throw new IllegalArgumentException("Fondation " + f + " non ordonnée");
+                rank++;
+            }
+            foundationRank[f] = (byte) rank;
+        }
+
+        for (int t = 0; t < 7; t++) {
+            List<Card> cards = board.getTableaux().get(t).getCards();
+            int size = cards.size();
+            int down = 0;
+            for (int i = 0; i < size; i++) {
+                Card c = cards.get(i);
+                if (!c.isFaceUp()) {
+                    if (down != i) throw new IllegalArgumentException("Carte cachée au-dessus d'une visible (colonne " + t + ")");
+                    down++;
+                }
+            }
+            if (size > 0 && size + cards.get(size - 1).getRank() - 1 > COLUMN_CAPACITY)
+                throw new IllegalArgumentException("Colonne " + t + " trop longue");
+            for (int i = 0; i < size; i++) {
+                int code = cards.get(i).getCode();
+                columns[t * COLUMN_CAPACITY + i] = (byte) code;
+                position[code] = (byte) (t * COLUMN_CAPACITY + i);
+            }
+            columnSize[t] = (byte) size;
+            faceDown[t] = (byte) down;
+        }
+
+        List<Card> waste = board.getWaste();
+        List<Card> stock = board.getStock();
+        if (waste.size() + stock.size() > TALON_CAPACITY)
+            throw new IllegalArgumentException("Pioche trop grande");
+        int n = 0;
+        for (Card c : waste) {
+            if (!c.isFaceUp()) throw new IllegalArgumentException("Carte cachée dans la défausse");
+            talon[n++] = (byte) c.getCode();
+        }
+        cursor = n;
+        for (int i = stock.size() - 1; i >= 0; i--) {
+            Card c = stock.get(i);
+            if (c.isFaceUp()) throw new IllegalArgumentException("Carte visible dans la pioche");
+            talon[n++] = (byte) c.getCode();
+        }
+        talonSize = n;
+        hash = computeHash();
+    }
+
+    public Board toBoard() {
+        Board board = new Board();
+        for (int f = 0; f < 4; f++) {
+            for (int rank = 1; rank <= foundationRank[f]; rank++) {
+                board.getFoundations().get(f).addCard(Card.of(f * 13 + rank - 1, true));
+            }
+        }
+        for (int t = 0; t < 7; t++) {
+            Tableau tableau = board.getTableaux().get(t);
+            for (int i = 0; i < columnSize[t]; i++) {
+                tableau.addCard(Card.of(columns[t * COLUMN_CAPACITY + i], i >= faceDown[t]));
+            }
+        }
+        for (int i = 0; i < cursor; i++) board.getWaste().push(Card.of(talon[i], true));
+        for (int i = talonSize - 1; i >= cursor; i--) board.getStock().push(Card.of(talon[i], false));
+        board.rehash();
+        return board;
+    }
+
+    // Recopie sans allocation (pour réutiliser un même plateau de simulation)
+    public void copyFrom(CompactBoard other) {
+        System.arraycopy(other.columns, 0, columns, 0, columns.length);
+        System.arraycopy(other.columnSize, 0, columnSize, 0, 7);
+        System.arraycopy(other.faceDown, 0, faceDown, 0, 7);
+        System.arraycopy(other.foundationRank, 0, foundationRank, 0, 4);
+        System.arraycopy(other.position, 0, position, 0, 52);
+        System.arraycopy(other.talon, 0, talon, 0, other.talonSize);
+        talonSize = other.talonSize;
+        cursor = other.cursor;
+        hash = other.hash;
+    }
+
+    // Même position (mêmes cartes aux mêmes places, mêmes faces) ?
+    public boolean samePosition(CompactBoard other) {
+        if (talonSize != other.talonSize || cursor != other.cursor) return false;
+        for (int t = 0; t < 7; t++) {
+            if (columnSize[t] != other.columnSize[t] || faceDown[t] != other.faceDown[t]) return false;
+            int base = t * COLUMN_CAPACITY;
+            if (!Arrays.equals(columns, base, base + columnSize[t], other.columns, base, base + columnSize[t])) return false;
+        }
+        return Arrays.equals(foundationRank, other.foundationRank)
+                && Arrays.equals(talon, 0, talonSize, other.talon, 0, talonSize);
+    }
+
+    // Hash de 64 bits de la position : deux positions égales au sens de samePosition ont le même hash.
+    // XOR des clés de Zobrist de chaque carte posée, tenu à jour par les coups (quelques clés par coup) :
+    // le lire ne coûte rien (tables de transposition, détection des cycles des simulations).
+    public long hash() {
+        return hash;
+    }
+
+    // Le même hash, recalculé depuis zéro
+    long computeHash() {
+        long h = 0;
+        for (int t = 0; t < 7; t++) {
+            int base = t * COLUMN_CAPACITY;
+            for (int i = 0; i < columnSize[t]; i++) h ^= cellKey(base + i, columns[base + i]);
+            h ^= faceDownKey(t, faceDown[t]);
+        }
+        for (int f = 0; f < 4; f++) h ^= foundationKey(f, foundationRank[f]);
+        return h ^ talonKey();
+    }
+
+    private static long cellKey(int at, int card) {
+        return Zobrist.mix((long) at * 52 + card);
+    }
+
+    private static long faceDownKey(int t, int count) {
+        return Zobrist.mix(HASH_FACE_DOWN + t * COLUMN_CAPACITY + count);
+    }
+
+    private static long foundationKey(int f, int rank) {
+        return Zobrist.mix(HASH_FOUNDATION + f * 14 + rank);
+    }
+
+    private long wasteKey(int i) {
+        return Zobrist.mix(HASH_WASTE + i * 52 + talon[i]);
+    }
+
+    private long stockKey(int i) {
+        return Zobrist.mix(HASH_STOCK + (talonSize - 1 - i) * 52 + talon[i]);
+    }
+
+    // Part du talon dans le hash
+    private long talonKey() {
+        long h = 0;
+        for (int i = 0; i < cursor; i++) h ^= wasteKey(i);
+        for (int i = cursor; i < talonSize; i++) h ^= stockKey(i);
+        return h;
+    }
+
+    public CompactBoard copy() {
+        CompactBoard copy = new CompactBoard();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    // --- 1. GÉNÉRATION DES COUPS VALIDES (même ordre que Board.getValidMoves) ---
+
+    public int generateMoves(int[] out) {
+        int n = 0;
+
+        // A. Piocher ou Recycler
+        if (cursor < talonSize) {
+            out[n++] = PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1);
+        } else if (cursor > 0) {
+            out[n++] = PackedMove.of(Move.MoveType.RECYCLE_WASTE, -1, -1, -1, 1);
+        }
+
+        // B. Défausse vers Fondation ou Tableau
+        if (cursor > 0) n = addWasteMoves(out, n, talon[cursor - 1], false);
+
+        return addTableauAndFoundationMoves(out, n);
+    }
+
+    // Modèle de coups "à macros" : la pioche et la défausse ne sont plus qu'une liste de cartes
+    // accessibles (on pioche une carte à la fois et on recycle sans limite : toutes le sont).
+    // Chaque carte du talon qui peut être jouée donne un seul coup composé (PackedMove.drawsFirst),
+    // qui pioche et recycle jusqu'à elle puis la joue ; il n'y a plus de coup "piocher" ni "recycler".
+    // Les coups du tableau et des fondations sont ceux de generateMoves.
+    public int generateMacroMoves(int[] out) {
+        int n = 0;
+        // Dans l'ordre où la pioche les amène : sommet de la défausse, pioche, puis défausse recyclée
+        for (int k = 0; k < talonSize; k++) {
+            int i = (cursor - 1 + k + talonSize) % talonSize;
+            n = addWasteMoves(out, n, talon[i], i != cursor - 1);
+        }
+        return addTableauAndFoundationMoves(out, n);
+    }
+
+    // Coups qui jouent cette carte de la défausse (après l'avoir piochée si 'draws')
+    private int addWasteMoves(int[] out, int n, int card, boolean draws) {
+        for (int f = 0; f < 4; f++) {
+            if (canAddToFoundation(f, card)) {
+                int move = PackedMove.of(Move.MoveType.WASTE_TO_FOUNDATION, card, -1, f, 1);
+                out[n++] = draws ? PackedMove.drawingFirst(move) : move;
+            }
+        }
+        for (int t = 0; t < 7; t++) {
+            if (canAddToTableau(t, card)) {
+                int move = PackedMove.of(Move.MoveType.WASTE_TO_TABLEAU, card, -1, t, 1);
+                out[n++] = draws ? PackedMove.drawingFirst(move) : move;
+            }
+        }
+        return n;
+    }
+
+    private int addTableauAndFoundationMoves(int[] out, int n) {
+        // C. Tableau vers ...
+        for (int src = 0; src < 7; src++) {
+            int size = columnSize[src];
+            if (size == 0) continue;
+            int base = src * COLUMN_CAPACITY;
+
+            if (faceDown[src] < size) {
+                int top = columns[base + size - 1];
+                for (int f = 0; f < 4; f++) {
+                    if (canAddToFoundation(f, top))
+                        out[n++] = PackedMove.of(Move.MoveType.TABLEAU_TO_FOUNDATION, top, src, f, 1);
+                }
+            }
+
+            // Pour chaque colonne cible, les cartes qu'elle accepte sont-elles visibles ici ?
+            int lowest = base + faceDown[src];
+            int end = base + size;
+            int first = n;
+            for (int dest = 0; dest < 7; dest++) {
+                if (dest == src) continue;
+                int destSize = columnSize[dest];
+                long wanted = destSize == 0 ? Rules.KINGS : Rules.acceptedBy(columns[dest * COLUMN_CAPACITY + destSize - 1]);
+                for (; wanted != 0; wanted &= wanted - 1) {
+                    int card = Long.numberOfTrailingZeros(wanted);
+                    int at = position[card] & 0xFF;
+                    if (at >= lowest && at < end && columns[at] == card)
+                        out[n++] = PackedMove.of(Move.MoveType.TABLEAU_TO_TABLEAU, card, src, dest, end - at);
+                }
+            }
+            PackedMove.sortByLengthThenTarget(out, first, n); // Même ordre que Board
+        }
+
+        // D. Fondation vers Tableau
+        for (int f = 0; f < 4; f++) {
+            if (foundationRank[f] == 0) continue;
+            int card = f * 13 + foundationRank[f] - 1;
+            for (int t = 0; t < 7; t++) {
+                if (canAddToTableau(t, card))
+                    out[n++] = PackedMove.of(Move.MoveType.FOUNDATION_TO_TABLEAU, card, f, t, 1);
+            }
+        }
+        return n;
+    }
+
+    private boolean canAddToFoundation(int f, int card) {
+        return card == Rules.foundationNext(f, foundationRank[f]);
+    }
+
+    // Comme Tableau.canAddCard : on regarde la carte du dessus, qu'elle soit visible ou non
+    private boolean canAddToTableau(int t, int card) {
+        int size = columnSize[t];
+        if (size == 0) return Rules.isKing(card);
+        return Rules.canStack(card, columns[t * COLUMN_CAPACITY + size - 1]);
+    }
+
+    // --- 2. EXÉCUTION DES COUPS ---
+
+    public void applyMove(Move move) {
+        applyMove(PackedMove.fromMove(move));
+    }
+
+    public void applyMove(int move) {
+        switch (PackedMove.type(move)) {
+            case STOCK_TO_WASTE -> {
+                hash ^= stockKey(cursor) ^ wasteKey(cursor);
+                cursor++;
+            }
+            case RECYCLE_WASTE -> setCursor(0);
+            case WASTE_TO_FOUNDATION -> {
+                if (PackedMove.drawsFirst(move)) drawTo(PackedMove.card(move));
+                popWaste();
+                raiseFoundation(PackedMove.target(move));
+            }
+            case WASTE_TO_TABLEAU -> {
+                if (PackedMove.drawsFirst(move)) drawTo(PackedMove.card(move));
+                push(PackedMove.target(move), popWaste());
+            }
+            case TABLEAU_TO_FOUNDATION -> {
+                int src = PackedMove.source(move);
+                popColumn(src);
+                raiseFoundation(PackedMove.target(move));
+                revealNextCard(src);
+            }
+            case TABLEAU_TO_TABLEAU -> {
+                int src = PackedMove.source(move);
+                int dest = PackedMove.target(move);
+                int len = PackedMove.length(move);
+                int from = src * COLUMN_CAPACITY + columnSize[src] - len;
+                int to = dest * COLUMN_CAPACITY + columnSize[dest];
+                System.arraycopy(columns, from, columns, to, len);
+                for (int i = 0; i < len; i++) {
+                    int card = columns[to + i];
+                    position[card] = (byte) (to + i);
+                    hash ^= cellKey(from + i, card) ^ cellKey(to + i, card);
+                }
+                columnSize[src] = (byte) (columnSize[src] - len);
+                columnSize[dest] = (byte) (columnSize[dest] + len);
+                revealNextCard(src);
+            }
+            case FOUNDATION_TO_TABLEAU -> {
+                int f = PackedMove.source(move);
+                push(PackedMove.target(move), f * 13 + foundationRank[f] - 1);
+                hash ^= foundationKey(f, foundationRank[f]) ^ foundationKey(f, foundationRank[f] - 1);
+                foundationRank[f]--;
+            }
+        }
+    }
+
+    // --- 2 bis. COUPS SÛRS ---
+
+    // Monte en fondation, d'un coup et tant qu'il y en a, les cartes qu'on ne regrettera jamais
+    // d'y avoir mises (sommet de la défausse et des colonnes) : les As et les 2, et toute carte dont
+    // les deux cartes de rang inférieur de l'autre teinte sont déjà en fondation, car plus aucune
+    // carte n'aura besoin d'elle comme support au tableau. Une carte montée peut en découvrir une
+    // autre qui monte à son tour. Renvoie le nombre de cartes montées.
+    public int applySafeMoves() {
+        int applied = 0;
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            while (cursor > 0 && isSafeForFoundation(talon[cursor - 1])) {
+                raiseFoundation(SUIT[popWaste()]);
+                applied++;
+                progress = true;
+            }
+            for (int t = 0; t < 7; t++) {
+                while (columnSize[t] > faceDown[t] && isSafeForFoundation(columns[t * COLUMN_CAPACITY + columnSize[t] - 1])) {
+                    raiseFoundation(SUIT[popColumn(t)]);
+                    revealNextCard(t);
+                    applied++;
+                    progress = true;
+                }
+            }
+        }
+        return applied;
+    }
+
+    private boolean isSafeForFoundation(int card) {
+        int rank = RANK[card];
+        if (foundationRank[SUIT[card]] != rank - 1) return false;
+        if (rank <= 2) return true;
+        int[] opposite = OPPOSITE_SUITS[SUIT[card]];
+        return foundationRank[opposite[0]] >= rank - 1 && foundationRank[opposite[1]] >= rank - 1;
+    }
+
+    // --- 2 ter. ÉLAGAGE ---
+
+    // Retire de moves[0..count) (coups de cette position) les coups redondants, sans changer l'ordre
+    // des autres, et renvoie le nombre de coups gardés :
+    // - symétries : une carte ne va que dans la première colonne vide, toutes se valent, et une
+    //   colonne commençant par un Roi n'est jamais déplacée telle quelle vers une autre colonne vide ;
+    // - coups dominés : fondation -> tableau, et les déplacements de tableau qui ne retournent
+    //   aucune carte, ne vident aucune colonne et découvrent une carte sans nouveau coup.
+    // Si rien ne reste, tous les coups sont gardés : l'élagage ne crée jamais d'impasse.
+    public int pruneRedundantMoves(int[] moves, int count) {
+        int firstEmpty = -1;
+        for (int t = 0; t < 7 && firstEmpty < 0; t++) {
+            if (columnSize[t] == 0) firstEmpty = t;
+        }
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (!isRedundant(moves[i], firstEmpty)) moves[n++] = moves[i];
+        }
+        return n == 0 ? count : n; // Rien n'a été écrasé si n == 0
+    }
+
+    private boolean isRedundant(int move, int firstEmpty) {
+        int target = PackedMove.target(move);
+        switch (PackedMove.type(move)) {
+            case FOUNDATION_TO_TABLEAU -> {
+                return true;
+            }
+            case WASTE_TO_TABLEAU -> {
+                return columnSize[target] == 0 && target != firstEmpty;
+            }
+            case TABLEAU_TO_TABLEAU -> {
+                int src = PackedMove.source(move);
+                int remaining = columnSize[src] - PackedMove.length(move);
+                if (columnSize[target] == 0) return target != firstEmpty || remaining == 0;
+                if (remaining <= faceDown[src]) return false; // Retourne une carte ou vide la colonne
+                return !opensPlay(columns[src * COLUMN_CAPACITY + remaining - 1], PackedMove.card(move));
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    // La carte découverte en retirant 'moved' permet-elle un nouveau coup : monter en fondation, ou
+    // recevoir l'autre carte qu'elle accepte, si celle-ci est au talon ou visible dans une colonne ?
+    private boolean opensPlay(int exposed, int moved) {
+        if (canAddToFoundation(SUIT[exposed], exposed)) return true;
+        for (long wanted = Rules.acceptedBy(exposed) & ~Rules.bit(moved); wanted != 0; wanted &= wanted - 1) {
+            int card = Long.numberOfTrailingZeros(wanted);
+            int at = position[card] & 0xFF;
+            int column = at / COLUMN_CAPACITY;
+            int index = at - column * COLUMN_CAPACITY;
+            if (columns[at] == card && index >= faceDown[column] && index < columnSize[column]) return true;
+            for (int i = 0; i < talonSize; i++) {
+                if (talon[i] == card) return true;
+            }
+        }
+        return false;
+    }
+
+    // Pioche (en recyclant si besoin) jusqu'à ce que la carte soit au sommet de la défausse
+    private void drawTo(int card) {
+        int i = 0;
+        while (talon[i] != card) i++;
+        setCursor(i + 1);
+    }
+
+    // Déplace la limite pioche / défausse (recyclage, pioches multiples)
+    private void setCursor(int newCursor) {
+        hash ^= talonKey();
+        cursor = newCursor;
+        hash ^= talonKey();
+    }
+
+    private void raiseFoundation(int f) {
+        hash ^= foundationKey(f, foundationRank[f]) ^ foundationKey(f, foundationRank[f] + 1);
+        foundationRank[f]++;
+    }
+
+    // Retire la carte du dessus de la colonne (sans retourner celle du dessous)
+    private int popColumn(int t) {
+        int at = t * COLUMN_CAPACITY + columnSize[t] - 1;
+        int card = columns[at];
+        hash ^= cellKey(at, card);
+        columnSize[t]--;
+        return card;
+    }
+
+    private int popWaste() {
+        int card = talon[cursor - 1];
+        hash ^= wasteKey(cursor - 1); // Les cartes de la pioche gardent leur rang depuis le haut
+        System.arraycopy(talon, cursor, talon, cursor - 1, talonSize - cursor);
+        cursor--;
+        talonSize--;
+        return card;
+    }
+
+    private void push(int t, int card) {
+        int at = t * COLUMN_CAPACITY + columnSize[t];
+        columns[at] = (byte) card;
+        position[card] = (byte) at;
+        hash ^= cellKey(at, card);
+        columnSize[t]++;
+    }
+
+    private void revealNextCard(int t) {
+        if (columnSize[t] > 0 && faceDown[t] >= columnSize[t]) {
+            hash ^= faceDownKey(t, faceDown[t]) ^ faceDownKey(t, columnSize[t] - 1);
+            faceDown[t] = (byte) (columnSize[t] - 1);
+        }
+    }
+
+    // --- 3. MÉTHODES UTILITAIRES ---
+
+    public boolean isGameWon() {
+        return foundationRank[0] == 13 && foundationRank[1] == 13
+                && foundationRank[2] == 13 && foundationRank[3] == 13;
+    }
+
+    public int columnSize(int t) { return columnSize[t]; }
+    public int faceDownCount(int t) { return faceDown[t]; }
+    public int visibleCount(int t) { return columnSize[t] - faceDown[t]; }
+    public int cardAt(int t, int index) { return columns[t * COLUMN_CAPACITY + index]; }
+    public int foundationSize(int f) { return foundationRank[f]; }
+    public int stockSize() { return talonSize - cursor; }
+    public int wasteSize() { return cursor; }
+}
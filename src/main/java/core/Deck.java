@@ -2,13 +2,12 @@ package core;
 
 import java.util.Collections;
 import java.util.Random;
-import java.util.Stack;
 
 public class Deck {
-    private final Stack<Card> cards;
+    private final CardStack cards;
 
     public Deck() {
-        cards = new Stack<>();
+        cards = new CardStack(52);
         initialize();
     }
 
@@ -18,7 +17,7 @@ public class Deck {
         for (Suit suit : Suit.values()) {
             for (int rank = 1; rank <= 13; rank++) {
                 // Par défaut, les cartes sont face cachée dans la pioche
-                cards.push(new Card(suit, rank, false));
+                cards.push(Card.of(suit, rank, false));
             }
         }
     }
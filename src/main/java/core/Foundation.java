@@ -4,7 +4,7 @@ public class Foundation extends Pile {
     private final Suit suit;
 
     public Foundation(Suit suit) {
-        super(); // Appelle le constructeur de Pile (crée le Stack)
+        super(suit.ordinal(), 13); // Appelle le constructeur de Pile (crée la pile de cartes)
         this.suit = suit;
     }
 
@@ -14,18 +14,9 @@ public class Foundation extends Pile {
 
     @Override
     public boolean canAddCard(Card card) {
-        // Règle 1 : Bonne couleur ?
-        if (card.getSuit() != suit) {
-            return false;
-        }
-
-        // Règle 2 : Si vide, il faut un As
-        if (isEmpty()) {
-            return card.getRank() == 1;
-        }
-
-        // Règle 3 : Sinon, rang supérieur (3 sur 2)
-        return card.getRank() == peekTopCard().getRank() + 1;
+        // Bonne couleur, et l'As si vide ou sinon le rang supérieur (3 sur 2) : une seule carte possible
+        int topRank = isEmpty() ? 0 : peekTopCard().getRank();
+        return card.getCode() == Rules.foundationNext(suit.ordinal(), topRank);
     }
 
     public boolean isComplete() {
@@ -0,0 +1,67 @@
+package core;
+
+// Un coup encodé dans un seul int (aucune allocation) :
+//   bits 0-2   : type (ordinal de Move.MoveType)
+//   bits 3-6   : source + 1 (0 = aucune)
+//   bits 7-10  : cible + 1 (0 = aucune)
+//   bits 11-15 : longueur de la séquence
+//   bits 16-22 : code de la carte + 1 (0 = aucune carte, ex: la pioche)
+//   bit 23     : coup composé "piocher jusqu'à la carte, puis la jouer" (voir CompactBoard.generateMacroMoves)
+//   bits 24-31 : libres (utilisés par les enregistrements d'annulation de Board.applyMoveWithUndo)
+public final class PackedMove {
+    public static final int MAX_MOVES = 256; // Taille d'un tampon de coups : largement au-dessus d'une position réelle
+
+    private static final Move.MoveType[] TYPES = Move.MoveType.values();
+    private static final int DRAWS_FIRST = 1 << 23;
+
+    private PackedMove() {}
+
+    public static int of(Move.MoveType type, int cardCode, int sourceIndex, int targetIndex, int sequenceLength) {
+        return type.ordinal()
+                | (sourceIndex + 1) << 3
+                | (targetIndex + 1) << 7
+                | sequenceLength << 11
+                | (cardCode + 1) << 16;
+    }
+
+    public static Move.MoveType type(int move) { return TYPES[move & 7]; }
+    public static int typeOrdinal(int move) { return move & 7; }
+    public static int source(int move) { return ((move >>> 3) & 15) - 1; }
+    public static int target(int move) { return ((move >>> 7) & 15) - 1; }
+    public static int length(int move) { return (move >>> 11) & 31; }
+    public static int card(int move) { return ((move >>> 16) & 127) - 1; } // -1 si aucune carte
+    public static boolean drawsFirst(int move) { return (move & DRAWS_FIRST) != 0; }
+
+    // Le même coup de la défausse, précédé des pioches (et recyclages) qui amènent sa carte au sommet
+    public static int drawingFirst(int move) { return move | DRAWS_FIRST; }
+
+    public static int fromMove(Move move) {
+        int code = move.getCard() == null ? -1 : move.getCard().getCode();
+        return of(move.getType(), code, move.getSourceIndex(), move.getTargetIndex(), move.getSequenceLength());
+    }
+
+    // Les cartes déplacées sont toujours visibles
+    public static Move toMove(int move) {
+        int code = card(move);
+        Card card = code < 0 ? null : Card.of(code, true);
+        return new Move(type(move), card, source(move), target(move)).setSequenceLength(length(move));
+    }
+
+    // Trie moves[from..to) par longueur puis par cible (tri par insertion : quelques coups au plus)
+    static void sortByLengthThenTarget(int[] moves, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int move = moves[i];
+            int key = (move >>> 7) & 511; // bits 7-15 : longueur puis cible + 1
+            int j = i - 1;
+            while (j >= from && ((moves[j] >>> 7) & 511) > key) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = move;
+        }
+    }
+
+    public static String toString(int move) {
+        return drawsFirst(move) ? "Pioche jusqu'à : " + toMove(move) : toMove(move).toString();
+    }
+}
@@ -1,23 +1,44 @@
 package core;
 
-import java.util.Stack;
-
 // "abstract" signifie qu'on ne peut pas faire "new Pile()".
 // On doit forcément créer une Foundation ou un Tableau.
 public abstract class Pile implements Cloneable {
-    protected Stack<Card> cards;
+    protected CardStack cards;
+    private final int slot; // Numéro de la pile pour les clés de Zobrist
+    private long zobristKey; // XOR des clés de toutes les cartes de la pile
+    private long cardMask;   // Bit 'code' de chaque carte de la pile (voir Rules)
+    private long faceUpMask; // Idem, seulement les cartes visibles
 
     public Pile() {
-        this.cards = new Stack<>();
+        this(0, 52);
+    }
+
+    // 'capacity' : nombre maximum de cartes de la pile en jeu normal
+    protected Pile(int slot, int capacity) {
+        this.cards = new CardStack(capacity);
+        this.slot = slot;
     }
 
     public void addCard(Card card) {
+        zobristKey ^= Zobrist.key(slot, cards.size(), card);
+        toggleMasks(card);
         cards.push(card);
     }
 
     public Card removeTopCard() {
         if (isEmpty()) return null;
-        return cards.pop();
+        Card card = cards.pop();
+        zobristKey ^= Zobrist.key(slot, cards.size(), card);
+        toggleMasks(card);
+        return card;
+    }
+
+    // Ajoute ou retire la carte des masques
+    private void toggleMasks(Card card) {
+        if (card == null) return;
+        long bit = 1L << card.getCode();
+        cardMask ^= bit;
+        if (card.isFaceUp()) faceUpMask ^= bit;
     }
 
     public Card peekTopCard() {
@@ -33,11 +54,61 @@ public abstract class Pile implements Cloneable {
         return cards.size();
     }
 
+    // Déplace les 'count' cartes du dessus vers une autre pile, dans le même ordre
+    // (séquence visible : les cartes déplacées sont toutes face visible)
+    void moveTopCardsTo(Pile dest, int count) {
+        int from = cards.size() - count;
+        int to = dest.cards.size();
+        for (int i = 0; i < count; i++) {
+            Card card = cards.get(from + i);
+            zobristKey ^= Zobrist.key(slot, from + i, card);
+            dest.zobristKey ^= Zobrist.key(dest.slot, to + i, card);
+            toggleMasks(card);
+            dest.toggleMasks(card);
+        }
+        cards.moveTopTo(dest.cards, count);
+    }
+
+    // Remplace la carte du dessus (ex: la même carte retournée)
+    void replaceTopCard(Card card) {
+        int top = cards.size() - 1;
+        zobristKey ^= Zobrist.key(slot, top, cards.get(top)) ^ Zobrist.key(slot, top, card);
+        toggleMasks(cards.get(top));
+        toggleMasks(card);
+        cards.set(top, card);
+    }
+
     public void clear() {
         cards.clear();
+        zobristKey = 0;
+        cardMask = 0;
+        faceUpMask = 0;
+    }
+
+    long getZobristKey() {
+        return zobristKey;
+    }
+
+    long getCardMask() {
+        return cardMask;
+    }
+
+    long getFaceUpMask() {
+        return faceUpMask;
+    }
+
+    // Recalcule la clé et les masques (si les cartes ont été modifiées directement via getCards())
+    void rehash() {
+        zobristKey = 0;
+        cardMask = 0;
+        faceUpMask = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            zobristKey ^= Zobrist.key(slot, i, cards.get(i));
+            toggleMasks(cards.get(i));
+        }
     }
 
-    public Stack<Card> getCards() {
+    public CardStack getCards() {
         return cards;
     }
 
@@ -45,16 +116,12 @@ public abstract class Pile implements Cloneable {
     public abstract boolean canAddCard(Card card);
 
     // CRUCIAL POUR L'IA : Permet de créer une copie parfaite de la pile
+    // Les cartes sont immuables et la pile est copiée sur écriture (voir CardStack.copy)
     @Override
     public Pile clone() {
         try {
             Pile cloned = (Pile) super.clone();
-            // CORRECTION : On ne fait pas juste cards.clone(), on recrée une nouvelle Stack
-            // et on clone CHAQUE carte individuellement.
-            cloned.cards = new Stack<>();
-            for (Card c : this.cards) {
-                cloned.cards.push(c.clone()); // Utilise le clone() de Card
-            }
+            cloned.cards = this.cards.copy();
             return cloned;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
@@ -0,0 +1,61 @@
+package core;
+
+// Tables de règles précalculées, indexées par code de carte (couleur * 13 + rang - 1).
+// Un ensemble de cartes tient dans un long (bit 'code'), donc les tests de légalité
+// et les heuristiques deviennent des opérations sur des bits, sans getters ni branches.
+public final class Rules {
+    private static final long[] STACKS_ON = new long[52];  // STACKS_ON[c] : cartes sur lesquelles on peut poser c
+    private static final long[] ACCEPTS = new long[52];    // ACCEPTS[c] : cartes qu'on peut poser sur c
+    private static final int[] FOUNDATION_NEXT = new int[4 * 14]; // [couleur * 14 + rang du sommet] -> carte suivante
+
+    public static final long KINGS;
+
+    static {
+        Suit[] suits = Suit.values();
+        long kings = 0;
+        for (int card = 0; card < 52; card++) {
+            int rank = card % 13 + 1;
+            boolean red = suits[card / 13].isRed();
+            if (rank == 13) kings |= 1L << card;
+            for (int onto = 0; onto < 52; onto++) {
+                boolean ontoRed = suits[onto / 13].isRed();
+                if (red != ontoRed && rank == onto % 13) {
+                    STACKS_ON[card] |= 1L << onto;
+                    ACCEPTS[onto] |= 1L << card;
+                }
+            }
+        }
+        KINGS = kings;
+
+        for (int suit = 0; suit < 4; suit++) {
+            for (int rank = 0; rank <= 13; rank++) {
+                FOUNDATION_NEXT[suit * 14 + rank] = rank == 13 ? -1 : suit * 13 + rank;
+            }
+        }
+    }
+
+    private Rules() {}
+
+    public static long bit(int card) {
+        return 1L << card;
+    }
+
+    // La carte 'card' peut-elle être posée sur 'onto' dans un tableau ? (rang juste en dessous, autre couleur)
+    public static boolean canStack(int card, int onto) {
+        return (STACKS_ON[card] & 1L << onto) != 0;
+    }
+
+    // Les deux cartes qu'on peut poser sur 'onto'
+    public static long acceptedBy(int onto) {
+        return ACCEPTS[onto];
+    }
+
+    public static boolean isKing(int card) {
+        return (KINGS & 1L << card) != 0;
+    }
+
+    // Carte attendue par une fondation dont le sommet a ce rang (0 = vide), -1 si elle est complète
+    public static int foundationNext(int suit, int topRank) {
+        return FOUNDATION_NEXT[suit * 14 + topRank];
+    }
+}
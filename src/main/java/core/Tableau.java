@@ -3,19 +3,72 @@ package core;
 import java.util.Stack;
 
 public class Tableau extends Pile {
+    // Nombre de cartes jusqu'à la dernière carte cachée (les cartes visibles sont au-dessus)
+    private int faceDownCount;
+
+    public Tableau() {
+        this(0);
+    }
+
+    // Numéro de colonne (0-6), utilisé pour le hash de la position
+    public Tableau(int column) {
+        super(Zobrist.FIRST_TABLEAU + column, 19); // 6 cartes cachées + Roi -> As
+    }
+
+    @Override
+    public void addCard(Card card) {
+        super.addCard(card);
+        if (card != null && !card.isFaceUp()) faceDownCount = size();
+    }
+
+    @Override
+    public Card removeTopCard() {
+        Card card = super.removeTopCard();
+        if (faceDownCount > size()) faceDownCount = size();
+        return card;
+    }
+
+    @Override
+    void moveTopCardsTo(Pile dest, int count) {
+        super.moveTopCardsTo(dest, count);
+        if (faceDownCount > size()) faceDownCount = size();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        faceDownCount = 0;
+    }
+
+    // Retourne la carte du dessus face visible
+    void revealTopCard() {
+        int top = size() - 1;
+        replaceTopCard(cards.get(top).flipped());
+        // On cherche la carte cachée suivante (en jeu normal, c'est celle juste en dessous)
+        int i = top;
+        while (i > 0 && cards.get(i - 1).isFaceUp()) i--;
+        faceDownCount = i;
+    }
+
+    // Remet la carte du dessus face cachée (annulation d'un coup)
+    void hideTopCard() {
+        replaceTopCard(peekTopCard().flipped());
+        faceDownCount = size();
+    }
+
+    public int getFaceDownCount() {
+        return faceDownCount;
+    }
+
+    public int getVisibleCount() {
+        return size() - faceDownCount;
+    }
 
     // Récupère toutes les cartes faces visibles (pour calculer les séquences à bouger)
     public Stack<Card> getVisibleCards() {
         Stack<Card> visible = new Stack<>();
-        for (Card card : cards) {
-            // --- PROTECTION ANTI-CRASH ---
-            if (card == null) continue;
-            // -----------------------------
-            if (card.isFaceUp()) {
-                visible.push(card);
-            } else {
-                visible.clear(); // On ne peut prendre que les dernières cartes visibles
-            }
+        for (int i = faceDownCount; i < size(); i++) {
+            visible.push(cards.get(i));
         }
         return visible;
     }
@@ -36,18 +89,11 @@ public class Tableau extends Pile {
     public boolean canAddCard(Card card) {
         // Règle 1 : Si vide, il faut un Roi
         if (isEmpty()) {
-            return card.getRank() == 13;
+            return Rules.isKing(card.getCode());
         }
 
-        Card topCard = peekTopCard();
-
-        // Règle 2 : Couleurs alternées (Rouge != Rouge)
-        boolean differentColor = card.isRed() != topCard.isRed();
-
-        // Règle 3 : Rang décroissant (5 sur 6)
-        boolean correctRank = card.getRank() == topCard.getRank() - 1;
-
-        return differentColor && correctRank;
+        // Règle 2 et 3 : Couleurs alternées et rang décroissant (5 sur 6), lues dans la table
+        return Rules.canStack(card.getCode(), peekTopCard().getCode());
     }
 
     @Override
@@ -0,0 +1,327 @@
+package core;
+
+import java.util.AbstractList;
+import java.util.EmptyStackException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Pioche + défausse en un seul tableau avec un curseur (comme dans CompactBoard) :
+//   codes[0..cursor) est la défausse (sommet en cursor - 1), toujours face visible,
+//   codes[cursor + gap..size + gap) est la pioche (sommet en cursor + gap), toujours face cachée.
+// Piocher ou recycler ne fait que déplacer le curseur : la face d'une carte dépend de sa place.
+// Le trou 'gap' laissé par les cartes retirées de la défausse n'est refermé qu'au besoin.
+//
+// Le hash se met à jour en O(1) lui aussi, y compris au recyclage. Chaque côté est un polynôme
+// (modulo 2^64) des clés des cartes, en puissances de B :
+//   défausse = somme R[c_j] * B^j                 (j depuis le bas de la défausse)
+//   pioche   = somme R[c_j] * B^(j - cursor)      (depuis le sommet de la pioche)
+// Recycler, c'est recoller les deux : pioche' = défausse + pioche * B^cursor.
+//
+// copy() partage le tableau de cartes (copie sur écriture, comme CardStack) : piocher, recycler et
+// retirer le sommet de la défausse n'écrivent pas dedans tant qu'il n'y a pas de trou ; les autres
+// modifications le dupliquent.
+public final class Talon {
+    private static final int CAPACITY = 52;
+    private static final long B = 0x9E3779B97F4A7C15L; // Impair, donc inversible modulo 2^64
+    private static final long B_INVERSE;
+    private static final long[] POWER = new long[CAPACITY + 1];
+    private static final long[] R = new long[52];
+
+    static {
+        long inverse = B; // Newton : chaque itération double le nombre de bits justes
+        for (int i = 0; i < 5; i++) inverse *= 2 - B * inverse;
+        B_INVERSE = inverse;
+        POWER[0] = 1;
+        for (int i = 1; i <= CAPACITY; i++) POWER[i] = POWER[i - 1] * B;
+        for (int code = 0; code < 52; code++) R[code] = Zobrist.key(Zobrist.STOCK, 0, Card.of(code, false));
+    }
+
+    private byte[] codes;
+    private boolean shared; // 'codes' est aussi utilisé par une copie
+    private int size;
+    private int cursor;
+    private int gap; // Places vides entre la défausse et la pioche
+    private long wastePoly;
+    private long stockPoly;
+    private long wasteMask; // Cartes de la défausse (bit 'code', voir Rules)
+    private long stockMask; // Cartes de la pioche
+
+    private final Side stock = new Side(false);
+    private final Side waste = new Side(true);
+
+    public Talon() {
+        codes = new byte[CAPACITY];
+    }
+
+    // Copie qui partage le tableau de cartes de 'other'
+    private Talon(Talon other) {
+        codes = other.codes;
+        shared = true;
+        other.shared = true;
+        size = other.size;
+        cursor = other.cursor;
+        gap = other.gap;
+        wastePoly = other.wastePoly;
+        stockPoly = other.stockPoly;
+        wasteMask = other.wasteMask;
+        stockMask = other.stockMask;
+    }
+
+    public Side stock() { return stock; }
+    public Side waste() { return waste; }
+
+    public int stockSize() { return size - cursor; }
+    public int wasteSize() { return cursor; }
+    public long wasteMask() { return wasteMask; }
+    public long stockMask() { return stockMask; }
+
+    public Card peekWaste() {
+        return cursor == 0 ? null : Card.of(codes[cursor - 1], true);
+    }
+
+    // --- COUPS (appelés par Board) ---
+
+    // Le sommet de la pioche passe sur la défausse (en franchissant le trou s'il y en a un)
+    void draw() {
+        int code = codes[cursor + gap];
+        if (gap > 0) {
+            own();
+            codes[cursor] = (byte) code;
+        }
+        stockPoly = (stockPoly - R[code]) * B_INVERSE;
+        wastePoly += R[code] * POWER[cursor];
+        stockMask ^= 1L << code;
+        wasteMask ^= 1L << code;
+        cursor++;
+    }
+
+    void undoDraw() {
+        cursor--;
+        int code = codes[cursor];
+        if (gap > 0) {
+            own();
+            codes[cursor + gap] = (byte) code;
+        }
+        wastePoly -= R[code] * POWER[cursor];
+        stockPoly = stockPoly * B + R[code];
+        stockMask ^= 1L << code;
+        wasteMask ^= 1L << code;
+    }
+
+    // Toute la défausse redevient la pioche, dans le même ordre. Renvoie le nombre de cartes recyclées.
+    int recycle() {
+        closeGap();
+        int recycled = cursor;
+        stockPoly = wastePoly + stockPoly * POWER[cursor];
+        wastePoly = 0;
+        stockMask |= wasteMask;
+        wasteMask = 0;
+        cursor = 0;
+        return recycled;
+    }
+
+    void undoRecycle(int recycled) {
+        closeGap();
+        cursor = recycled;
+        rehash();
+    }
+
+    Card popWaste() {
+        if (cursor == 0) throw new EmptyStackException();
+        int code = codes[cursor - 1];
+        // La pioche ne bouge pas : la place libérée agrandit le trou
+        cursor--;
+        size--;
+        gap++;
+        wastePoly -= R[code] * POWER[cursor];
+        wasteMask ^= 1L << code;
+        return Card.of(code, true);
+    }
+
+    void pushWaste(Card card) {
+        if (gap > 0) {
+            // Rebouche le trou (annulation d'un popWaste)
+            own();
+            codes[cursor] = (byte) card.getCode();
+            size++;
+            gap--;
+        } else {
+            insert(cursor, card);
+        }
+        wastePoly += R[card.getCode()] * POWER[cursor];
+        wasteMask ^= 1L << card.getCode();
+        cursor++;
+    }
+
+    void pushStock(Card card) {
+        insert(cursor, card);
+        stockPoly = stockPoly * B + R[card.getCode()];
+        stockMask ^= 1L << card.getCode();
+    }
+
+    Card popStock() {
+        if (cursor == size) throw new EmptyStackException();
+        closeGap();
+        int code = codes[cursor];
+        own();
+        System.arraycopy(codes, cursor + 1, codes, cursor, size - cursor - 1);
+        size--;
+        stockPoly = (stockPoly - R[code]) * B_INVERSE;
+        stockMask ^= 1L << code;
+        return Card.of(code, false);
+    }
+
+    void clear() {
+        size = 0;
+        cursor = 0;
+        gap = 0;
+        wastePoly = 0;
+        stockPoly = 0;
+        wasteMask = 0;
+        stockMask = 0;
+    }
+
+    private void insert(int index, Card card) {
+        if (size == CAPACITY) throw new IllegalStateException("Pioche pleine");
+        closeGap();
+        own();
+        System.arraycopy(codes, index, codes, index + 1, size - index);
+        codes[index] = (byte) card.getCode();
+        size++;
+    }
+
+    private void own() {
+        if (shared) {
+            codes = codes.clone();
+            shared = false;
+        }
+    }
+
+    // Ramène la pioche contre la défausse
+    private void closeGap() {
+        if (gap == 0) return;
+        own();
+        System.arraycopy(codes, cursor + gap, codes, cursor, size - cursor);
+        gap = 0;
+    }
+
+    // --- HASH ---
+
+    long getZobristKey() {
+        return Zobrist.mix(wastePoly ^ Zobrist.WASTE) ^ Zobrist.mix(stockPoly ^ Zobrist.STOCK);
+    }
+
+    void rehash() {
+        wastePoly = 0;
+        wasteMask = 0;
+        for (int j = 0; j < cursor; j++) {
+            wastePoly += R[codes[j]] * POWER[j];
+            wasteMask ^= 1L << codes[j];
+        }
+        stockPoly = 0;
+        stockMask = 0;
+        for (int j = size - 1 + gap; j >= cursor + gap; j--) {
+            stockPoly = stockPoly * B + R[codes[j]];
+            stockMask ^= 1L << codes[j];
+        }
+    }
+
+    Talon copy() {
+        return new Talon(this);
+    }
+
+    // Vue "pile" de la pioche ou de la défausse (index 0 = bas de la pile), pour l'affichage,
+    // les tests et la mise en place d'une position. Toute modification garde le hash à jour.
+    public final class Side extends AbstractList<Card> implements RandomAccess {
+        private final boolean isWaste;
+
+        private Side(boolean isWaste) {
+            this.isWaste = isWaste;
+        }
+
+        // Place dans codes de la carte d'index 'index' (depuis le bas)
+        private int slot(int index) {
+            return isWaste ? index : size - 1 - index + gap;
+        }
+
+        public Card push(Card card) {
+            if (isWaste) pushWaste(card);
+            else pushStock(card);
+            return card;
+        }
+
+        public Card pop() {
+            return isWaste ? popWaste() : popStock();
+        }
+
+        public Card peek() {
+            if (isEmpty()) throw new EmptyStackException();
+            return get(size() - 1);
+        }
+
+        @Override
+        public Card get(int index) {
+            Objects.checkIndex(index, size());
+            return Card.of(codes[slot(index)], isWaste);
+        }
+
+        @Override
+        public Card set(int index, Card card) {
+            Card old = get(index);
+            own();
+            codes[slot(index)] = (byte) card.getCode();
+            rehash();
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return isWaste ? cursor : size - cursor;
+        }
+
+        @Override
+        public boolean add(Card card) {
+            push(card);
+            return true;
+        }
+
+        @Override
+        public void add(int index, Card card) {
+            Objects.checkIndex(index, size() + 1);
+            insert(isWaste ? index : size - index, card);
+            if (isWaste) cursor++;
+            rehash();
+        }
+
+        @Override
+        public Card remove(int index) {
+            Card card = get(index);
+            closeGap();
+            int at = slot(index);
+            own();
+            System.arraycopy(codes, at + 1, codes, at, size - at - 1);
+            size--;
+            if (isWaste) cursor--;
+            rehash();
+            return card;
+        }
+
+        @Override
+        public void clear() {
+            if (isWaste) {
+                closeGap();
+                own();
+                System.arraycopy(codes, cursor, codes, 0, size - cursor);
+                size -= cursor;
+                cursor = 0;
+                wastePoly = 0;
+                wasteMask = 0;
+            } else {
+                size = cursor;
+                gap = 0;
+                stockPoly = 0;
+                stockMask = 0;
+            }
+        }
+    }
+}
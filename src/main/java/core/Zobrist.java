@@ -0,0 +1,26 @@
+package core;
+
+// Clés de Zobrist : un nombre pseudo-aléatoire de 64 bits pour chaque (pile, position, carte + face).
+// Le hash d'une position est le XOR des clés de toutes ses cartes, mis à jour à chaque ajout/retrait.
+// Les clés sont calculées par splitmix64 au lieu d'être lues dans une table : quelques multiplications,
+// rien à charger en cache, et aucune limite sur la hauteur des piles.
+final class Zobrist {
+    // Numéros de pile : fondations 0-3, tableaux 4-10, puis la pioche et la défausse
+    static final int FIRST_TABLEAU = 4;
+    static final int STOCK = 11;
+    static final int WASTE = 12;
+
+    private Zobrist() {}
+
+    static long key(int slot, int depth, Card card) {
+        if (card == null) return 0;
+        return mix(((long) slot * 64 + depth) * 104 + card.id());
+    }
+
+    static long mix(long index) {
+        long z = (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -33,6 +33,12 @@ public class AIParams {
     // Notation scientifique : -9 * 10 puissance 22
     public double foundationToTableauPenalty = -9e22;
 
+    // --- Recherche arborescente (MCTSSolver en mode TREE) ---
+    // Constante d'exploration de UCB1 / PUCT (les scores sont ramenés dans [0, 1])
+    public double explorationConstant = 0.7;
+    // 0 = UCB1 ; > 0 = PUCT, avec un prior = softmax(valeur heuristique du coup / priorTemperature)
+    public double priorTemperature = 0.0;
+
     // Constructeur par défaut
     public AIParams() {}
 
@@ -49,6 +55,8 @@ public class AIParams {
         this.foundationToTableauPenalty = f2t;
     }
 
+    private static final double PRIOR_TEMPERATURE_STEP = 100; // Mutation : +/- 50, à l'échelle des bonus
+
     // Créer une version mutante (légèrement modifiée)
     public AIParams mutate() {
         AIParams mutant = new AIParams();
@@ -62,6 +70,9 @@ public class AIParams {
         mutant.stockPenaltyImmediate = mutateValue(this.stockPenaltyImmediate);
         mutant.recyclePenalty = mutateValue(this.recyclePenalty);         // <-- AJOUTÉ
         mutant.foundationToTableauPenalty = mutateValue(this.foundationToTableauPenalty); // <-- AJOUTÉ
+        mutant.explorationConstant = mutateValue(this.explorationConstant);
+        // Pas additif : une mutation proportionnelle laisserait la température à 0 (UCB1) pour toujours
+        mutant.priorTemperature = Math.max(0, this.priorTemperature + (Math.random() - 0.5) * PRIOR_TEMPERATURE_STEP);
 
         return mutant;
     }
@@ -75,7 +86,7 @@ public class AIParams {
     @Override
     public String toString() {
         return String.format(
-                "Foundation: %.1f, Reveal: %.1f, Tableau: %.1f, WasteToTab: %.1f, King: %.1f, Stock: %.1f, StockImm: %.1f, Recycle: %.1f, FndToTab: %.1f",
+                "Foundation: %.1f, Reveal: %.1f, Tableau: %.1f, WasteToTab: %.1f, King: %.1f, Stock: %.1f, StockImm: %.1f, Recycle: %.1f, FndToTab: %.1f, Explore: %.2f, PriorTemp: %.1f",
                 foundationBonus,
                 revealBonus,
                 tableauMoveBonus,
@@ -84,7 +95,9 @@ public class AIParams {
                 stockPenalty,
                 stockPenaltyImmediate,
                 recyclePenalty,
-                foundationToTableauPenalty
+                foundationToTableauPenalty,
+                explorationConstant,
+                priorTemperature
         );
     }
 }
\ No newline at end of file
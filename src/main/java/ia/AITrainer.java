@@ -3,7 +3,6 @@ import core.*;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
 
 public class AITrainer {
 
@@ -20,6 +19,9 @@ public class AITrainer {
             13070230818607L, 13069535514345L, 13070790698305L, 13068949983124L, 13070161539362L
     };
 
+    // Parties d'une évaluation en parallèle (les threads des pools ne bloquent pas la fin du programme)
+    private static final SearchScheduler SCHEDULER = SearchScheduler.forGames(TRAIN_SEEDS.length);
+
     public static void main(String[] args) {
         System.out.println("🧬 Démarrage de l'évolution de l'IA...");
 
@@ -73,7 +75,7 @@ public class AITrainer {
         int totalGames = TRAIN_SEEDS.length; // 100 parties identiques pour tout le monde
         AtomicInteger wins = new AtomicInteger(0);
 
-        IntStream.range(0, totalGames).parallel().forEach(i -> {
+        SCHEDULER.forEachGame(totalGames, i -> {
             Board board = new Board();
 
             // CORRECTION CRUCIALE :
@@ -84,11 +86,12 @@ public class AITrainer {
             // Etc.
             board.newGame(TRAIN_SEEDS[i]);
 
-            MCTSSolver solver = new MCTSSolver(params);
+            // Une session par partie : en mode TREE, elle réutiliserait l'arbre du coup précédent
+            SearchSession session = new SearchSession(SCHEDULER.configure(new MCTSSolver(params)));
 
             int moves = 0;
             while (!board.isGameWon() && moves < 200) {
-                Move m = solver.findBestMove(board);
+                Move m = session.findBestMove(board);
                 if (m == null) break;
                 board.applyMove(m);
                 moves++;
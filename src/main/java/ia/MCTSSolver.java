@@ -1,26 +1,156 @@
 package ia;
 import core.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
 import java.util.stream.IntStream;
 
 public class MCTSSolver {
+    // FLAT : Monte Carlo à plat (statistiques sur le premier coup seulement)
+    // TREE : vraie recherche arborescente UCT (voir UctTree)
+    public enum SearchMode { FLAT, TREE }
+
+    // Parallélisme du mode TREE (voir TreeSearch)
+    // TREE : tous les threads dans le même arbre ; ROOT : un arbre par thread, fusionnés à la racine
+    public enum Parallelism { TREE, ROOT }
+
+    // Répartition des simulations entre les coups de la racine (mode FLAT)
+    // RANDOM : premier coup tiré au hasard (70 % de coups de tableau) ;
+    // SEQUENTIAL_HALVING : par tours, en éliminant la moitié la moins bonne à chaque tour
+    public enum RootAllocation { RANDOM, SEQUENTIAL_HALVING }
+
+    // Coups de la recherche sous la racine et des simulations
+    // STANDARD : ceux de Board.getValidMoves ;
+    // STOCK_MACROS : la pioche n'est plus qu'une liste de cartes accessibles, chacune jouée en un seul
+    //                coup composé (CompactBoard.generateMacroMoves)
+    public enum MoveModel { STANDARD, STOCK_MACROS }
+
     private static final int SIMULATIONS = 150; // Un peu moins de simulations pour garder la fluidité
     private static final int MAX_DEPTH = 100;
+    private static final int MAX_CYCLE_REPEATS = 8; // Positions revues sans progrès avant d'abandonner une simulation
+    private static final int DEFAULT_TABLE_SIZE = 1 << 14; // Entrées de la table de transposition (mode TREE)
+    private static final int EDGES_PER_NODE = 4; // Arcs réservés par nœud de l'arène (mode TREE)
+    private static final int DEFAULT_MIN_SAMPLES_PER_MOVE = 8; // Halving séquentiel : premier tour
+    // En dessous, un thread de plus coûte plus cher (fork/join) que les simulations qu'il ferait
+    private static final int MIN_ROLLOUTS_PER_THREAD = 16;
+
+    // Échéance (en System.nanoTime) d'une recherche sans limite de temps
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Arrêt anticipé (setEarlyStopping)
+    static final int EARLY_STOP_INTERVAL = 32;      // Simulations entre deux tests d'arrêt
+    static final int EARLY_STOP_MIN_SAMPLES = 16;   // Simulations par coup avant de conclure
+    static final double EARLY_STOP_Z = 2.58;        // Intervalles de confiance à 99 %
 
     private final AIParams params;
+    private final RolloutPolicy policy; // AIParams compilés pour les simulations
 
     private int simulationCount;
+    private SearchMode searchMode = SearchMode.FLAT;
+    private int transpositionTableSize = DEFAULT_TABLE_SIZE;
+    private Parallelism parallelism = Parallelism.TREE;
+    private int virtualLoss = 1;
+    private int arenaCapacity; // Nœuds de l'arène du mode TREE, 0 = selon le nombre de simulations
+    private boolean earlyStopping;
+    private RootAllocation rootAllocation = RootAllocation.RANDOM;
+    private int minSamplesPerMove = DEFAULT_MIN_SAMPLES_PER_MOVE;
+    private ForkJoinPool executor; // null = pool commun
+    private int searchThreads;     // 0 = automatique
+    private boolean cycleDetection = true;
+    private boolean safeMoves = true;
+    private MoveModel moveModel = MoveModel.STANDARD;
+    private boolean movePruning = true;
+    private final LongAdder rolloutsSaved = new LongAdder();
+    private final LongAdder flatRollouts = new LongAdder(); // Simulations du mode FLAT (voir SearchSession)
+
+    // Plateau et tampon de coups réutilisés par chaque thread de simulation
+    private static final class Workspace {
+        final CompactBoard board = new CompactBoard();
+        final int[] moves = new int[PackedMove.MAX_MOVES];
+        final PositionSet seen = newPositionSet();
+    }
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    // Statistiques des simulations par premier coup (mode FLAT), en tableaux de primitives indexés
+    // comme les coups de la racine (generateMoves). Chaque thread de simulation a sa propre ligne de
+    // sommes partielles : ni verrou ni boxing pendant les simulations, les lignes ne sont additionnées
+    // qu'à la fin (combine).
+    // Seul l'arrêt anticipé les relit en cours de route (accès "opaque" : sommes d'un thread
+    // éventuellement en retard d'une simulation, jamais à moitié écrites).
+    static final class RootStats {
+        private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+        private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+        private final double[][] partialScores;
+        private final double[][] partialSquares; // Somme des carrés (variance)
+        private final int[][] partialCounts;
+
+        // Totaux de tous les threads, à jour après combine
+        final double[] scores;
+        final double[] squares;
+        final int[] counts;
+
+        volatile boolean decided; // L'arrêt anticipé a tranché
+
+        RootStats(int threads, int moves) {
+            partialScores = new double[threads][moves];
+            partialSquares = new double[threads][moves];
+            partialCounts = new int[threads][moves];
+            scores = new double[moves];
+            squares = new double[moves];
+            counts = new int[moves];
+        }
+
+        int threads() {
+            return partialCounts.length;
+        }
+
+        // Seul le thread 'thread' écrit dans sa ligne
+        void add(int thread, int move, double score) {
+            DOUBLES.setOpaque(partialScores[thread], move, partialScores[thread][move] + score);
+            DOUBLES.setOpaque(partialSquares[thread], move, partialSquares[thread][move] + score * score);
+            INTS.setOpaque(partialCounts[thread], move, partialCounts[thread][move] + 1);
+        }
+
+        // Additionne les lignes de tous les threads dans les tableaux donnés
+        void sum(double[] scores, double[] squares, int[] counts) {
+            for (int t = 0; t < partialCounts.length; t++) {
+                for (int m = 0; m < counts.length; m++) {
+                    scores[m] += (double) DOUBLES.getOpaque(partialScores[t], m);
+                    squares[m] += (double) DOUBLES.getOpaque(partialSquares[t], m);
+                    counts[m] += (int) INTS.getOpaque(partialCounts[t], m);
+                }
+            }
+        }
+
+        // Une fois les simulations terminées
+        void combine() {
+            Arrays.fill(scores, 0);
+            Arrays.fill(squares, 0);
+            Arrays.fill(counts, 0);
+            sum(scores, squares, counts);
+        }
+    }
 
     // Constructeur par défaut (utilise les params de base)
     public MCTSSolver() {
         this.params = new AIParams();
+        this.policy = new RolloutPolicy(params);
         this.simulationCount = 1000;
     }
 
     public MCTSSolver(AIParams params, int simulationCount) {
         this.params = params;
+        this.policy = new RolloutPolicy(params);
         this.simulationCount = simulationCount;
     }
 
@@ -32,15 +162,451 @@ public class MCTSSolver {
     // Nouveau constructeur complet
     public MCTSSolver(AIParams params, boolean trainingMode) {
         this.params = params;
+        this.policy = new RolloutPolicy(params);
         // Si mode entraînement : 50 simulations (très rapide)
         // Sinon (jeu réel) : 500 simulations (précis)
         this.simulationCount = trainingMode ? 50 : 1000;
     }
 
+    public MCTSSolver setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+        return this;
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    // Nombre d'entrées de la table de transposition du mode TREE (0 = pas de table).
+    // La mémoire de la table est fixe : 16 octets par entrée (deux longs), arrondie à une puissance de deux.
+    public MCTSSolver setTranspositionTableSize(int entries) {
+        if (entries < 0) throw new IllegalArgumentException("Taille négative : " + entries);
+        this.transpositionTableSize = entries;
+        return this;
+    }
+
+    public int getTranspositionTableSize() {
+        return transpositionTableSize;
+    }
+
+    public MCTSSolver setParallelism(Parallelism parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public Parallelism getParallelism() {
+        return parallelism;
+    }
+
+    // Nombre de visites perdues que compte chaque thread en train de descendre par un nœud
+    // (0 = aucune : les threads suivent tous la même ligne)
+    public MCTSSolver setVirtualLoss(int virtualLoss) {
+        if (virtualLoss < 0) throw new IllegalArgumentException("Perte virtuelle négative : " + virtualLoss);
+        this.virtualLoss = virtualLoss;
+        return this;
+    }
+
+    public int getVirtualLoss() {
+        return virtualLoss;
+    }
+
+    // Nombre maximal de nœuds d'un arbre du mode TREE (0 = automatique : de quoi garder l'arbre
+    // d'un coup à l'autre). La mémoire est réservée d'un bloc, voir NodeArena.
+    public MCTSSolver setArenaCapacity(int nodes) {
+        if (nodes < 0) throw new IllegalArgumentException("Capacité négative : " + nodes);
+        this.arenaCapacity = nodes;
+        return this;
+    }
+
+    public int getArenaCapacity() {
+        return arenaCapacity;
+    }
+
+    // Arrêt anticipé : la recherche s'arrête avant la fin du budget quand le choix est joué.
+    // FLAT : l'intervalle de confiance (moyenne ± z * écart type / racine(n)) du meilleur coup
+    //        ne recoupe plus celui d'aucun autre (y compris quand tous les coups se valent).
+    // TREE : le coup le plus visité (celui qui sera joué) a plus d'avance sur le deuxième qu'il ne reste
+    //        de simulations, ou sa borne basse est au-dessus de la borne haute de tous les autres.
+    public MCTSSolver setEarlyStopping(boolean earlyStopping) {
+        this.earlyStopping = earlyStopping;
+        return this;
+    }
+
+    public boolean isEarlyStopping() {
+        return earlyStopping;
+    }
+
+    public MCTSSolver setRootAllocation(RootAllocation rootAllocation) {
+        this.rootAllocation = rootAllocation;
+        return this;
+    }
+
+    public RootAllocation getRootAllocation() {
+        return rootAllocation;
+    }
+
+    // Simulations garanties à chaque coup de la racine au premier tour du halving séquentiel
+    public MCTSSolver setMinSamplesPerMove(int samples) {
+        if (samples < 1) throw new IllegalArgumentException("Au moins une simulation par coup : " + samples);
+        this.minSamplesPerMove = samples;
+        return this;
+    }
+
+    public int getMinSamplesPerMove() {
+        return minSamplesPerMove;
+    }
+
+    // Pool des threads de recherche (null = pool commun de la JVM). Voir SearchScheduler pour
+    // partager les cœurs entre plusieurs parties jouées en même temps.
+    public MCTSSolver setExecutor(ForkJoinPool executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public ForkJoinPool getExecutor() {
+        return executor;
+    }
+
+    // Nombre de threads d'une recherche (0 = automatique : tout le pool, plus le thread appelant
+    // pour le pool commun). Avec 1, la recherche tourne entièrement sur le thread appelant, sans fork/join.
+    public MCTSSolver setSearchThreads(int threads) {
+        if (threads < 0) throw new IllegalArgumentException("Nombre de threads négatif : " + threads);
+        this.searchThreads = threads;
+        return this;
+    }
+
+    public int getSearchThreads() {
+        return searchThreads;
+    }
+
+    // Détection des cycles dans les simulations (pioche parcourue puis recyclée sans rien jouer, Roi
+    // promené entre colonnes vides...) : sur une position déjà vue, la simulation joue un coup au hasard
+    // pour sortir de la boucle, et s'arrête si ça se répète trop sans progrès, au lieu de tourner en
+    // rond jusqu'à la profondeur maximale. Activée par défaut.
+    public MCTSSolver setCycleDetection(boolean cycleDetection) {
+        this.cycleDetection = cycleDetection;
+        return this;
+    }
+
+    public boolean isCycleDetection() {
+        return cycleDetection;
+    }
+
+    // Coups sûrs joués d'office (CompactBoard.applySafeMoves) après chaque coup de la recherche et
+    // des simulations : les cartes qui montent en fondation sans risque ne coûtent ni nœud ni pas
+    // de simulation. À la racine, l'instinct les joue déjà. Activé par défaut.
+    public MCTSSolver setSafeMoves(boolean safeMoves) {
+        this.safeMoves = safeMoves;
+        return this;
+    }
+
+    public boolean isSafeMoves() {
+        return safeMoves;
+    }
+
+    // Avec STOCK_MACROS, une simulation ne passe plus de pas à feuilleter la pioche et l'arbre n'a plus
+    // de longues chaînes de nœuds "piocher" : chaque carte utile du talon est à un coup. La recherche
+    // choisit parmi les coups composés ; findBestMove renvoie le premier vrai coup du coup choisi
+    // (piocher ou recycler tant que la carte n'est pas au sommet de la défausse).
+    public MCTSSolver setMoveModel(MoveModel moveModel) {
+        this.moveModel = moveModel;
+        return this;
+    }
+
+    public MoveModel getMoveModel() {
+        return moveModel;
+    }
+
+    // Élagage des coups symétriques et dominés (CompactBoard.pruneRedundantMoves) dans la recherche et
+    // les simulations : Roi vers une seule des colonnes vides, pas de séquence promenée d'une colonne à
+    // l'autre pour rien, pas de carte redescendue des fondations. Désactivé, la recherche voit tous les
+    // coups légaux. Activé par défaut.
+    public MCTSSolver setMovePruning(boolean movePruning) {
+        this.movePruning = movePruning;
+        return this;
+    }
+
+    public boolean isMovePruning() {
+        return movePruning;
+    }
+
+    // Coups de la position selon le modèle de coups (voir setMoveModel) et l'élagage (setMovePruning)
+    int generateMoves(CompactBoard board, int[] moves) {
+        int count = moveModel == MoveModel.STOCK_MACROS ? board.generateMacroMoves(moves) : board.generateMoves(moves);
+        return movePruning ? board.pruneRedundantMoves(moves, count) : count;
+    }
+
+    // Le coup de availableMoves (Board.getValidMoves) par lequel commence le coup choisi par la recherche
+    static Move firstStep(List<Move> availableMoves, int move) {
+        for (Move m : availableMoves) {
+            Move.MoveType type = m.getType();
+            boolean draw = type == Move.MoveType.STOCK_TO_WASTE || type == Move.MoveType.RECYCLE_WASTE;
+            if (PackedMove.drawsFirst(move) ? draw : PackedMove.fromMove(m) == move) return m;
+        }
+        throw new IllegalStateException("Coup introuvable dans la position : " + PackedMove.toString(move));
+    }
+
+    // Joue le coup, puis les coups sûrs qu'il permet (voir setSafeMoves)
+    void play(CompactBoard board, int move) {
+        board.applyMove(move);
+        if (safeMoves) board.applySafeMoves();
+    }
+
+    // Simulations économisées par l'arrêt anticipé depuis la création du solveur
+    // (seulement quand le budget est un nombre de simulations, pas un temps seul)
+    public long getRolloutsSaved() {
+        return rolloutsSaved.sum();
+    }
+
+    void recordRolloutsSaved(int rollouts) {
+        rolloutsSaved.add(rollouts);
+    }
+
+    // Simulations lancées en mode FLAT depuis la création du solveur
+    long flatRollouts() {
+        return flatRollouts.sum();
+    }
+
     public Move findBestMove(Board realBoard) {
+        return findBestMove(realBoard, simulationCount, null);
+    }
+
+    // Au plus 'maxRollouts' simulations (au lieu de simulationCount)
+    public Move findBestMove(Board realBoard, int maxRollouts) {
+        return findBestMove(realBoard, maxRollouts, null);
+    }
+
+    // Simule jusqu'à la fin du temps imparti et renvoie le meilleur coup trouvé
+    public Move findBestMove(Board realBoard, Duration timeBudget) {
+        return findBestMove(realBoard, Integer.MAX_VALUE, timeBudget);
+    }
+
+    // Recherche "à tout moment" : s'arrête au premier des deux budgets épuisé (timeBudget null = pas de limite
+    // de temps). Le temps est vérifié entre deux simulations, donc dépassé au plus d'une simulation.
+    public Move findBestMove(Board realBoard, int maxRollouts, Duration timeBudget) {
+        if (maxRollouts < 0) throw new IllegalArgumentException("Budget de simulations négatif : " + maxRollouts);
+        long deadline = deadline(timeBudget);
         List<Move> availableMoves = realBoard.getValidMoves();
         if (availableMoves.isEmpty()) return null;
 
+        Move instinct = instinctMove(realBoard, availableMoves);
+        if (instinct != null) return instinct;
+
+        // --- PHASE 2 : LA RÉFLEXION (MCTS) ---
+        // Si aucun coup évident, on réfléchit pour départager les choix complexes.
+        CompactBoard rootBoard = CompactBoard.fromBoard(realBoard);
+
+        if (searchMode == SearchMode.TREE) {
+            TreeSearch search = newSearch(rootBoard);
+            search.search(maxRollouts, deadline);
+            return firstStep(availableMoves, search.bestMove());
+        }
+
+        // Coups de la racine selon le modèle de coups et l'élagage (sans eux, ceux de getValidMoves dans le même ordre)
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        int[] moves = Arrays.copyOf(buffer, generateMoves(rootBoard, buffer));
+        int threads = searchThreads();
+        RootStats stats = new RootStats(threads, moves.length);
+        if (rootAllocation == RootAllocation.SEQUENTIAL_HALVING) {
+            return firstStep(availableMoves, moves[sequentialHalving(rootBoard, moves, maxRollouts, deadline, stats)]);
+        }
+
+        int[] tableauMoves = tableauMoveIndices(moves);
+        int done = runRollouts(rootBoard, moves, maxRollouts, deadline,
+                () -> selectInitialMoveIndex(moves.length, tableauMoves), stats);
+        if (stats.decided && maxRollouts != Integer.MAX_VALUE) recordRolloutsSaved(maxRollouts - done);
+
+        // Sélection du meilleur coup selon la moyenne des scores
+        int[] all = IntStream.range(0, moves.length).toArray();
+        return firstStep(availableMoves, moves[bestMoveIndex(moves, all, all.length, stats)]);
+    }
+
+    // Halving séquentiel : le budget est partagé en tours (log2 du nombre de coups), chaque tour
+    // répartit sa part également entre les coups encore en lice puis élimine la moitié la moins bonne.
+    // Au premier tour, chaque coup a au moins minSamplesPerMove simulations (dans la limite du budget).
+    // Sans budget de simulations (temps seul), les tours sont prévus pour simulationCount simulations.
+    // Renvoie l'index du coup choisi.
+    int sequentialHalving(CompactBoard rootBoard, int[] moves, int maxRollouts,
+                          long deadline, RootStats stats) {
+        int budget = maxRollouts == Integer.MAX_VALUE ? simulationCount : maxRollouts;
+        int[] candidates = IntStream.range(0, moves.length).toArray(); // Les meilleurs d'abord après chaque tour
+        int inPlay = candidates.length;
+        int rounds = 32 - Integer.numberOfLeadingZeros(inPlay - 1); // Plafond de log2
+        for (int round = 0; round < rounds && inPlay > 1 && budget > 0; round++) {
+            int perMove = budget / (rounds - round) / inPlay;
+            if (round == 0) perMove = Math.max(perMove, minSamplesPerMove);
+            int rollouts = Math.min(Math.max(perMove, 1) * inPlay, budget);
+
+            // Tour à tour, pour que chaque coup ait sa part même si le tour est interrompu
+            int size = inPlay;
+            AtomicInteger next = new AtomicInteger();
+            budget -= runRollouts(rootBoard, moves, rollouts, deadline,
+                    () -> candidates[next.getAndIncrement() % size], stats);
+            if (stats.decided || expired(deadline)) break;
+
+            // Tri par insertion des coups en lice (les égalités gardent l'ordre de getValidMoves)
+            for (int i = 1; i < inPlay; i++) {
+                int move = candidates[i];
+                double score = averageScore(moves[move], stats.scores[move], stats.counts[move]);
+                int j = i;
+                for (; j > 0 && averageScore(moves[candidates[j - 1]], stats.scores[candidates[j - 1]],
+                        stats.counts[candidates[j - 1]]) < score; j--) {
+                    candidates[j] = candidates[j - 1];
+                }
+                candidates[j] = move;
+            }
+            inPlay = (inPlay + 1) / 2;
+        }
+        if (stats.decided && maxRollouts != Integer.MAX_VALUE) recordRolloutsSaved(budget);
+        return bestMoveIndex(moves, candidates, inPlay, stats);
+    }
+
+    // Lance au plus 'rollouts' simulations depuis la racine, réparties sur les threads, jusqu'à
+    // l'échéance ou l'arrêt anticipé ; 'firstMoves' donne l'index du premier coup de chacune.
+    // Renvoie le nombre de simulations faites ; les totaux de 'stats' sont alors à jour.
+    private int runRollouts(CompactBoard rootBoard, int[] moves, int rollouts, long deadline,
+                            IntSupplier firstMoves, RootStats stats) {
+        // Les simulations tournent sur la version compacte du plateau (aucun objet Card).
+        // Chaque thread tire des simulations tant qu'il reste du budget (nombre et temps).
+        AtomicInteger remaining = new AtomicInteger(rollouts);
+        AtomicInteger done = new AtomicInteger();
+        runWorkers(threadsFor(stats.threads(), rollouts), t -> {
+            // Chaque thread réutilise son propre plateau de simulation !
+            Workspace workspace = WORKSPACE.get();
+            CompactBoard simulationBoard = workspace.board;
+            while (remaining.getAndDecrement() > 0 && !expired(deadline)) {
+                simulationBoard.copyFrom(rootBoard);
+
+                int firstMove = firstMoves.getAsInt();
+
+                play(simulationBoard, moves[firstMove]);
+                double score = simulateRandomGame(simulationBoard, workspace.moves, workspace.seen);
+                stats.add(t, firstMove, score);
+
+                int count = done.incrementAndGet();
+                if (earlyStopping && count % EARLY_STOP_INTERVAL == 0 && isSeparated(moves, stats)) {
+                    stats.decided = true;
+                    remaining.set(0);
+                }
+            }
+        });
+        stats.combine();
+        flatRollouts.add(done.get());
+        return done.get();
+    }
+
+    // Index du coup de meilleure moyenne parmi les 'count' premiers de 'candidates' (le premier en cas d'égalité)
+    private int bestMoveIndex(int[] moves, int[] candidates, int count, RootStats stats) {
+        int best = candidates[0];
+        double bestScore = averageScore(moves[best], stats.scores[best], stats.counts[best]);
+        for (int i = 1; i < count; i++) {
+            int move = candidates[i];
+            double score = averageScore(moves[move], stats.scores[move], stats.counts[move]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    // Vrai si aucun coup ne peut plus dépasser le meilleur (moyennes de getAverageScore) :
+    // la borne haute de chaque autre coup est sous la borne basse du meilleur.
+    // Appelé pendant les simulations : relit les sommes partielles de tous les threads.
+    private boolean isSeparated(int[] moves, RootStats stats) {
+        int n = moves.length;
+        double[] scores = new double[n];
+        double[] squares = new double[n];
+        int[] counts = new int[n];
+        stats.sum(scores, squares, counts);
+
+        double[] mean = new double[n];
+        double[] margin = new double[n];
+        int best = 0;
+        for (int i = 0; i < n; i++) {
+            int count = counts[i];
+            if (count < EARLY_STOP_MIN_SAMPLES) return false;
+            double rawMean = scores[i] / count;
+            double variance = Math.max(0, squares[i] / count - rawMean * rawMean);
+            mean[i] = averageScore(moves[i], scores[i], count);
+            margin[i] = EARLY_STOP_Z * Math.sqrt(variance / count);
+            if (mean[i] > mean[best]) best = i;
+        }
+        double lowerBound = mean[best] - margin[best];
+        for (int i = 0; i < n; i++) {
+            if (i != best && mean[i] + margin[i] > lowerBound) return false;
+        }
+        return true;
+    }
+
+    // Threads d'une recherche : setSearchThreads, sinon tout le pool (le pool commun, plus le
+    // thread appelant, qui participe)
+    int searchThreads() {
+        if (searchThreads > 0) return searchThreads;
+        return executor == null ? ForkJoinPool.getCommonPoolParallelism() + 1 : executor.getParallelism();
+    }
+
+    // Threads à utiliser pour 'work' simulations : pas plus d'un par MIN_ROLLOUTS_PER_THREAD
+    static int threadsFor(int threads, int work) {
+        return Math.max(1, Math.min(threads, work / MIN_ROLLOUTS_PER_THREAD));
+    }
+
+    // Lance worker(0) ... worker(threads - 1) en parallèle dans le pool du solveur et attend la fin.
+    // Un seul worker tourne directement sur le thread appelant. Le thread appelant participe si
+    // c'est déjà un thread du pool (ou un thread ordinaire, pour le pool commun) ; sinon il attend.
+    void runWorkers(int threads, IntConsumer worker) {
+        if (threads <= 1) {
+            worker.accept(0);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            tasks.add(ForkJoinTask.adapt(() -> worker.accept(id)));
+        }
+        ForkJoinPool pool = executor == null ? ForkJoinPool.commonPool() : executor;
+        if (ForkJoinTask.getPool() == pool || (executor == null && !ForkJoinTask.inForkJoinPool())) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+    }
+
+    static long deadline(Duration timeBudget) {
+        return timeBudget == null ? NO_DEADLINE : System.nanoTime() + timeBudget.toNanos();
+    }
+
+    static boolean expired(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+    }
+
+    TreeSearch newSearch(CompactBoard rootBoard) {
+        int threads = searchThreads();
+        // ROOT : pas plus d'arbres que de threads utiles pour les simulations d'une décision (comme TREE et FLAT)
+        UctTree[] trees = new UctTree[parallelism == Parallelism.ROOT ? threadsFor(threads, simulationCount) : 1];
+        for (int i = 0; i < trees.length; i++) trees[i] = newTree(rootBoard);
+        return new TreeSearch(this, trees, threads);
+    }
+
+    UctTree newTree(CompactBoard rootBoard) {
+        // Au plus un nœud par simulation, et une recherche complète peut s'ajouter à l'arbre gardé
+        int nodes = Math.max(2, arenaCapacity > 0 ? arenaCapacity : 2 * simulationCount + 1);
+        NodeArena arena = new NodeArena(nodes, Math.max(PackedMove.MAX_MOVES, nodes * EDGES_PER_NODE));
+        TranspositionTable table = transpositionTableSize > 0 ? new TranspositionTable(transpositionTableSize) : null;
+        return new UctTree(this, params, rootBoard, arena, table, virtualLoss);
+    }
+
+    // Assez grand pour toutes les positions d'une simulation
+    static PositionSet newPositionSet() {
+        return new PositionSet(MAX_DEPTH + 1);
+    }
+
+    int getSimulationCount() {
+        return simulationCount;
+    }
+
+    // Coup joué sans réfléchir (règles prioritaires, ou coup unique), null s'il faut chercher
+    Move instinctMove(Board realBoard, List<Move> availableMoves) {
         // --- PHASE 1 : L'INSTINCT (Règles Prioritaires) ---
         // Si on peut faire un coup génial, on le fait tout de suite sans lancer de simulations.
 
@@ -57,7 +623,7 @@ public class MCTSSolver {
             if (m.getType() == Move.MoveType.TABLEAU_TO_TABLEAU) {
                 Tableau src = realBoard.getTableaux().get(m.getSourceIndex());
                 // Si on déplace tout ce qui reste visible, et qu'il y a des cartes cachées dessous...
-                if (m.getSequenceLength() == src.getVisibleCards().size() && src.size() > src.getVisibleCards().size()) {
+                if (m.getSequenceLength() == src.getVisibleCount() && src.size() > src.getVisibleCount()) {
                     return m; // ...alors ce coup va retourner la carte du dessous. ON FONCE !
                 }
             }
@@ -71,52 +637,41 @@ public class MCTSSolver {
             }
         }
 
-        // --- PHASE 2 : LA RÉFLEXION (MCTS) ---
-        // Si aucun coup évident, on réfléchit pour départager les choix complexes.
-
         // Si un seul coup reste (souvent la pioche), on le joue.
         if (availableMoves.size() == 1) return availableMoves.get(0);
+        return null;
+    }
 
-        Map<Move, Double> moveScores = new ConcurrentHashMap<>();
-        Map<Move, Integer> moveCounts = new ConcurrentHashMap<>();
-
-        IntStream.range(0, simulationCount).parallel().forEach(i -> {
-            // Chaque thread doit avoir sa propre copie du plateau !
-            Board simulationBoard = realBoard.clone();
-
-            Move firstMove = selectInitialMove(availableMoves);
-
-            simulationBoard.applyMove(firstMove);
-            double score = simulateRandomGame(simulationBoard);
-
-            // merge est "thread-safe" sur une ConcurrentHashMap
-            moveScores.merge(firstMove, score, Double::sum);
-            moveCounts.merge(firstMove, 1, Integer::sum);
-        });
+    public Move selectInitialMove(List<Move> moves) {
+        int[] packed = moves.stream().mapToInt(PackedMove::fromMove).toArray();
+        return moves.get(selectInitialMoveIndex(moves.size(), tableauMoveIndices(packed)));
+    }
 
-        // Sélection du meilleur coup selon la moyenne des scores
-        return availableMoves.stream()
-                .max(Comparator.comparingDouble(m -> getAverageScore(m, moveScores, moveCounts)))
-                .orElse(availableMoves.get(0));
+    // Index des coups de tableau parmi 'moves'
+    private static int[] tableauMoveIndices(int[] moves) {
+        return IntStream.range(0, moves.length)
+                .filter(i -> PackedMove.type(moves[i]) == Move.MoveType.TABLEAU_TO_TABLEAU)
+                .toArray();
     }
 
-    public Move selectInitialMove(List<Move> moves) {
+    private static int selectInitialMoveIndex(int moveCount, int[] tableauMoves) {
         // Petite astuce : on préfère tester les mouvements de tableau plutôt que la pioche
-        List<Move> tableauMoves = moves.stream()
-                .filter(m -> m.getType() == Move.MoveType.TABLEAU_TO_TABLEAU)
-                .toList();
-
-        if (!tableauMoves.isEmpty() && ThreadLocalRandom.current().nextDouble() < 0.7) {
-            return tableauMoves.get(ThreadLocalRandom.current().nextInt(tableauMoves.size()));
+        if (tableauMoves.length > 0 && ThreadLocalRandom.current().nextDouble() < 0.7) {
+            return tableauMoves[ThreadLocalRandom.current().nextInt(tableauMoves.length)];
         }
-        return moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+        return ThreadLocalRandom.current().nextInt(moveCount);
     }
 
     public double getAverageScore(Move m, Map<Move, Double> scores, Map<Move, Integer> counts) {
-        double avg = scores.getOrDefault(m, -1000.0) / counts.getOrDefault(m, 1);
+        return averageScore(PackedMove.fromMove(m), scores.getOrDefault(m, 0.0), counts.getOrDefault(m, 0));
+    }
+
+    // Moyenne des 'count' scores de somme 'sum' (-1000 pour un coup jamais simulé)
+    private double averageScore(int move, double sum, int count) {
+        double avg = count == 0 ? -1000.0 : sum / count;
 
         // PETIT HACK FINAL : On pénalise artificiellement la pioche dans le score final
-        if (m.getType() == Move.MoveType.STOCK_TO_WASTE) {
+        if (PackedMove.type(move) == Move.MoveType.STOCK_TO_WASTE) {
             avg += params.stockPenalty;
         }
         return avg;
@@ -137,16 +692,65 @@ public class MCTSSolver {
         return calculateScore(board);
     }
 
+    // Même simulation, mais sur le plateau compact (coups encodés en int)
+    public double simulateRandomGame(CompactBoard board) {
+        Workspace workspace = WORKSPACE.get();
+        return simulateRandomGame(board, workspace.moves, workspace.seen);
+    }
+
+    // 'seen' : positions déjà vues par la simulation (voir setCycleDetection)
+    double simulateRandomGame(CompactBoard board, int[] moves, PositionSet seen) {
+        int movesCount = 0;
+        int progress = -1;
+        int repeats = 0;
+        while (!board.isGameWon() && movesCount < MAX_DEPTH) {
+            boolean repeated = false;
+            if (cycleDetection) {
+                // Cartes cachées + talon ne font que baisser : quand ce compte change, aucune
+                // position déjà vue ne peut revenir, on les oublie
+                int remaining = board.stockSize() + board.wasteSize();
+                for (int t = 0; t < 7; t++) remaining += board.faceDownCount(t);
+                if (remaining != progress) {
+                    progress = remaining;
+                    repeats = 0;
+                    seen.clear();
+                }
+                repeated = !seen.add(board.hash());
+                // Trop de retours sans progrès : la suite ne ferait que tourner en rond
+                if (repeated && ++repeats > MAX_CYCLE_REPEATS) break;
+            }
+
+            int count = generateMoves(board, moves);
+            if (count == 0) break;
+
+            // Position déjà vue : le coup heuristique y ramènerait, on en tire un au hasard pour en sortir
+            play(board, repeated ? moves[ThreadLocalRandom.current().nextInt(count)] : selectSimulationMove(board, moves, count));
+            movesCount++;
+        }
+        return calculateScore(board);
+    }
+
+    public int selectSimulationMove(CompactBoard board, int[] moves, int count) {
+        return policy.select(board, moves, count);
+    }
+
     public Move selectSimulationMove(Board board, List<Move> moves) {
         // Hasard pour l'exploration
         if (ThreadLocalRandom.current().nextDouble() < 0.1) {
             return moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
         }
 
-        // Sinon, meilleur coup local
-        return moves.stream()
-                .max(Comparator.comparingDouble(m -> evaluateMoveImmediateValue(board, m)))
-                .orElse(moves.get(0));
+        // Sinon, meilleur coup local (le premier en cas d'égalité)
+        Move best = moves.get(0);
+        int bestValue = evaluateMoveImmediateValue(board, best);
+        for (int i = 1; i < moves.size(); i++) {
+            int value = evaluateMoveImmediateValue(board, moves.get(i));
+            if (value > bestValue) {
+                bestValue = value;
+                best = moves.get(i);
+            }
+        }
+        return best;
     }
 
     // L'évaluation locale (pour la simulation)
@@ -182,13 +786,26 @@ public class MCTSSolver {
         return (int) score;
     }
 
+    // Même évaluation sur le plateau compact (table précalculée, voir RolloutPolicy)
+    public int evaluateMoveImmediateValue(CompactBoard board, int move) {
+        return policy.value(board, move);
+    }
+
+    public int calculateScore(CompactBoard board) {
+        if (board.isGameWon()) return 100000;
+        int score = 0;
+        for (int f = 0; f < 4; f++) score += board.foundationSize(f) * 500;
+        for (int t = 0; t < 7; t++) score += board.visibleCount(t) * 100;
+        return score;
+    }
+
     public int calculateScore(Board board) {
         if (board.isGameWon()) return 100000;
         int score = 0;
         // On récompense les fondations
         for (Foundation f : board.getFoundations()) score += f.size() * 500;
         // On récompense énormément les cartes retournées sur le tableau
-        for (Tableau t : board.getTableaux()) score += t.getVisibleCards().size() * 100;
+        for (Tableau t : board.getTableaux()) score += t.getVisibleCount() * 100;
         return score;
     }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+package ia;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Stockage des nœuds de UctTree en tableaux de primitives (un tableau par champ), alloués une fois :
+// aucun objet par nœud, donc rien à ramasser pour le GC quelle que soit la taille de l'arbre.
+//
+// Un nœud est un index dans les tableaux de nœuds ; ses arcs sont un bloc contigu dans les
+// tableaux d'arcs (coup, prior, nœud fils). Le coup est porté par l'arc et pas par le fils :
+// avec la table de transposition, un même nœud peut être le fils de plusieurs parents.
+// Un fils n'est créé qu'à sa première visite (NONE jusque-là).
+//
+// Allocation sans verrou par incrément d'un compteur. Quand l'arène est pleine, newNode et newEdges
+// renvoient NONE et la recherche continue sans agrandir l'arbre. Les nœuds des branches abandonnées
+// sont récupérés par compact(), appelé entre deux recherches quand la racine avance.
+final class NodeArena {
+    static final int NONE = -1;
+    private static final long UNEXPANDED = -1L;
+
+    // Octets par nœud et par arc (tableaux de la recherche + tableaux de travail de compact)
+    static final int NODE_BYTES = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 8;
+    static final int EDGE_BYTES = 4 + 4 + 4;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+
+    // Nœuds
+    private final int[] visits;
+    private final int[] virtualLoss;  // Descentes en cours par ce nœud (fois la perte virtuelle)
+    private final double[] valueSum;
+    private final double[] valueSquares; // Somme des carrés des scores (variance, arrêt anticipé)
+    private final long[] edges;       // (premier arc << 32) | nombre d'arcs, UNEXPANDED si pas développé
+
+    // Arcs
+    private final int[] edgeMove;     // PackedMove
+    private final float[] edgePrior;  // Probabilité a priori (PUCT)
+    private final int[] edgeChild;    // Nœud fils, NONE tant qu'il n'a pas été visité
+
+    private final AtomicInteger nodeTop = new AtomicInteger();
+    private final AtomicInteger edgeTop = new AtomicInteger();
+
+    // Tableaux de travail de compact (alloués une fois eux aussi)
+    private final int[] forward;      // Nouvel index de chaque nœud, NONE s'il est abandonné
+    private final int[] stack;
+    private final long[] blocks;      // (début du bloc d'arcs << 32) | nouvel index du nœud
+
+    NodeArena(int nodeCapacity, int edgeCapacity) {
+        visits = new int[nodeCapacity];
+        virtualLoss = new int[nodeCapacity];
+        valueSum = new double[nodeCapacity];
+        valueSquares = new double[nodeCapacity];
+        edges = new long[nodeCapacity];
+        edgeMove = new int[edgeCapacity];
+        edgePrior = new float[edgeCapacity];
+        edgeChild = new int[edgeCapacity];
+        forward = new int[nodeCapacity];
+        stack = new int[nodeCapacity];
+        blocks = new long[nodeCapacity];
+    }
+
+    // --- ALLOCATION ---
+
+    // Nouveau nœud vierge, NONE si l'arène est pleine
+    int newNode() {
+        int n = nodeTop.getAndIncrement();
+        if (n >= visits.length) {
+            nodeTop.set(visits.length); // Pour que le compteur ne déborde jamais
+            return NONE;
+        }
+        visits[n] = 0;
+        virtualLoss[n] = 0;
+        valueSum[n] = 0;
+        valueSquares[n] = 0;
+        edges[n] = UNEXPANDED;
+        return n;
+    }
+
+    // Bloc de 'count' arcs (à remplir avec setEdge puis publier avec publishEdges), NONE si plein
+    int newEdges(int count) {
+        int first = edgeTop.getAndAdd(count);
+        if (first + count > edgeMove.length || first + count < 0) {
+            edgeTop.set(edgeMove.length);
+            return NONE;
+        }
+        return first;
+    }
+
+    void setEdge(int e, int move, float prior) {
+        edgeMove[e] = move;
+        edgePrior[e] = prior;
+        edgeChild[e] = NONE;
+    }
+
+    // Développe le nœud avec les arcs déjà remplis. Renvoie false si un autre thread l'a fait avant.
+    boolean publishEdges(int n, int first, int count) {
+        return LONGS.compareAndSet(edges, n, UNEXPANDED, (long) first << 32 | count);
+    }
+
+    // --- NŒUDS ---
+
+    boolean isExpanded(int n) {
+        return (long) LONGS.getAcquire(edges, n) != UNEXPANDED;
+    }
+
+    // Premier arc et nombre d'arcs (nœud développé seulement)
+    int firstEdge(int n) {
+        return (int) ((long) LONGS.getAcquire(edges, n) >>> 32);
+    }
+
+    int edgeCount(int n) {
+        return (int) (long) LONGS.getAcquire(edges, n);
+    }
+
+    int visits(int n) {
+        return (int) INTS.getOpaque(visits, n);
+    }
+
+    int virtualLoss(int n) {
+        return (int) INTS.getOpaque(virtualLoss, n);
+    }
+
+    double valueSum(int n) {
+        return (double) DOUBLES.getOpaque(valueSum, n);
+    }
+
+    double valueSquares(int n) {
+        return (double) DOUBLES.getOpaque(valueSquares, n);
+    }
+
+    void addVisit(int n, double score) {
+        INTS.getAndAdd(visits, n, 1);
+        add(valueSum, n, score);
+        add(valueSquares, n, score * score);
+    }
+
+    private static void add(double[] array, int n, double value) {
+        double sum = (double) DOUBLES.getVolatile(array, n);
+        while (!DOUBLES.compareAndSet(array, n, sum, sum + value)) sum = (double) DOUBLES.getVolatile(array, n);
+    }
+
+    void addVirtualLoss(int n, int amount) {
+        INTS.getAndAdd(virtualLoss, n, amount);
+    }
+
+    // --- ARCS ---
+
+    int move(int e) {
+        return edgeMove[e];
+    }
+
+    float prior(int e) {
+        return edgePrior[e];
+    }
+
+    int child(int e) {
+        return (int) INTS.getAcquire(edgeChild, e);
+    }
+
+    // Pose le fils de l'arc, ou renvoie celui qu'un autre thread a posé avant
+    int setChild(int e, int node) {
+        int witness = (int) INTS.compareAndExchange(edgeChild, e, NONE, node);
+        return witness == NONE ? node : witness;
+    }
+
+    // --- RECYCLAGE ---
+
+    // Ne garde que les nœuds atteignables depuis 'root' (et leurs arcs), tassés au début des tableaux.
+    // Les index changent : la table de transposition est renumérotée, et le nouvel index de la racine
+    // est renvoyé. Jamais pendant une recherche.
+    int compact(int root, TranspositionTable table) {
+        int top = nodeTop.get();
+
+        // 1. Marquage des nœuds atteignables
+        Arrays.fill(forward, 0, top, NONE);
+        forward[root] = 0;
+        int sp = 0;
+        stack[sp++] = root;
+        while (sp > 0) {
+            int n = stack[--sp];
+            if (edges[n] == UNEXPANDED) continue;
+            int first = (int) (edges[n] >>> 32);
+            int count = (int) edges[n];
+            for (int e = first; e < first + count; e++) {
+                int c = edgeChild[e];
+                if (c != NONE && forward[c] == NONE) {
+                    forward[c] = 0;
+                    stack[sp++] = c;
+                }
+            }
+        }
+
+        // 2. Les nœuds vivants glissent vers le début, dans l'ordre
+        int live = 0;
+        int liveBlocks = 0;
+        for (int n = 0; n < top; n++) {
+            if (forward[n] == NONE) continue;
+            forward[n] = live;
+            visits[live] = visits[n];
+            virtualLoss[live] = virtualLoss[n];
+            valueSum[live] = valueSum[n];
+            valueSquares[live] = valueSquares[n];
+            edges[live] = edges[n];
+            if (edges[n] != UNEXPANDED && (int) edges[n] > 0) blocks[liveBlocks++] = (edges[n] >>> 32) << 32 | live;
+            live++;
+        }
+
+        // 3. Les blocs d'arcs vivants glissent aussi, par adresse croissante
+        Arrays.sort(blocks, 0, liveBlocks);
+        int liveEdges = 0;
+        for (int b = 0; b < liveBlocks; b++) {
+            int first = (int) (blocks[b] >>> 32);
+            int n = (int) blocks[b];
+            int count = (int) edges[n];
+            System.arraycopy(edgeMove, first, edgeMove, liveEdges, count);
+            System.arraycopy(edgePrior, first, edgePrior, liveEdges, count);
+            System.arraycopy(edgeChild, first, edgeChild, liveEdges, count);
+            edges[n] = (long) liveEdges << 32 | count;
+            liveEdges += count;
+        }
+        for (int e = 0; e < liveEdges; e++) {
+            if (edgeChild[e] != NONE) edgeChild[e] = forward[edgeChild[e]];
+        }
+        if (table != null) table.remap(forward, top);
+
+        nodeTop.set(live);
+        edgeTop.set(liveEdges);
+        return forward[root];
+    }
+
+    // Vide l'arène (tous les nœuds sont rendus)
+    void clear() {
+        nodeTop.set(0);
+        edgeTop.set(0);
+    }
+
+    // --- MÉMOIRE ---
+
+    int nodeCount() {
+        return Math.min(nodeTop.get(), visits.length);
+    }
+
+    int edgeCount() {
+        return Math.min(edgeTop.get(), edgeMove.length);
+    }
+
+    int nodeCapacity() {
+        return visits.length;
+    }
+
+    int edgeCapacity() {
+        return edgeMove.length;
+    }
+
+    // Octets réservés par l'arène (elle ne grandit jamais)
+    long bytes() {
+        return (long) visits.length * NODE_BYTES + (long) edgeMove.length * EDGE_BYTES;
+    }
+
+    String memoryReport() {
+        return String.format("nœuds %d/%d, arcs %d/%d, %d Ko réservés",
+                nodeCount(), nodeCapacity(), edgeCount(), edgeCapacity(), bytes() / 1024);
+    }
+}
@@ -0,0 +1,44 @@
+package ia;
+
+import java.util.Arrays;
+
+// Petit ensemble de hashs de positions (CompactBoard.hash) à adressage ouvert, pour repérer qu'une
+// simulation tourne en rond. Taille fixe, alloué une fois par thread ; clear() est en O(1) grâce à
+// un numéro de génération : une case n'est occupée que si elle porte la génération courante.
+final class PositionSet {
+    private final long[] keys;
+    private final int[] generations;
+    private final int mask;
+    private int generation = 1;
+    private int size;
+
+    // Au moins 'capacity' positions (la table reste au plus à moitié pleine)
+    PositionSet(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(1, capacity) * 4 - 1);
+        keys = new long[slots];
+        generations = new int[slots];
+        mask = slots - 1;
+    }
+
+    // Ajoute la position ; false si elle y était déjà
+    boolean add(long key) {
+        if (size * 2 >= keys.length) clear(); // Plein : on oublie tout, un cycle sera vu un tour plus tard
+        int i = (int) (key ^ (key >>> 32)) & mask; // Les hashs sont déjà bien mélangés
+        while (generations[i] == generation) {
+            if (keys[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        generations[i] = generation;
+        keys[i] = key;
+        size++;
+        return true;
+    }
+
+    void clear() {
+        size = 0;
+        if (++generation == 0) { // Après 2^32 vidages, les vieilles générations reviendraient
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ia;
+
+import core.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Politique des simulations sur le plateau compact : le coup de meilleure valeur locale, ou un coup
+// au hasard une fois sur dix. Les AIParams sont "compilés" une fois en une table de valeurs indexée
+// par le type du coup et deux drapeaux (carte cachée révélée, Roi quittant une carte de sa colonne) :
+// évaluer un coup ne coûte que quelques lectures, sans flux, lambda, boxing ni calcul en double.
+// C'est la boucle la plus intérieure du moteur.
+//
+// Les valeurs sont celles de MCTSSolver.evaluateMoveImmediateValue, arrondies de la même façon.
+// Les AIParams sont lus à la construction : les modifier ensuite n'a pas d'effet.
+final class RolloutPolicy {
+    private static final int REVEAL = 1;
+    private static final int KING = 2;
+    private static final int TABLEAU_TO_TABLEAU = Move.MoveType.TABLEAU_TO_TABLEAU.ordinal();
+    private static final double RANDOM_MOVE_RATE = 0.1;
+
+    private final int[] values; // [type * 4 + drapeaux]
+
+    RolloutPolicy(AIParams params) {
+        double[] base = new double[Move.MoveType.values().length];
+        for (Move.MoveType type : Move.MoveType.values()) {
+            base[type.ordinal()] = switch (type) {
+                case TABLEAU_TO_FOUNDATION, WASTE_TO_FOUNDATION -> params.foundationBonus;
+                case TABLEAU_TO_TABLEAU -> params.tableauMoveBonus;
+                case WASTE_TO_TABLEAU -> params.wasteToTableauBonus;
+                case STOCK_TO_WASTE -> params.stockPenaltyImmediate;
+                case RECYCLE_WASTE -> params.recyclePenalty;
+                case FOUNDATION_TO_TABLEAU -> params.foundationToTableauPenalty;
+            };
+        }
+        values = new int[base.length * 4];
+        for (int type = 0; type < base.length; type++) {
+            for (int flags = 0; flags < 4; flags++) {
+                // Même ordre d'addition que evaluateMoveImmediateValue, pour le même arrondi
+                double score = 0;
+                score += base[type];
+                if ((flags & REVEAL) != 0) score += params.revealBonus;
+                if ((flags & KING) != 0) score += params.kingBonus;
+                values[type * 4 + flags] = (int) score;
+            }
+        }
+    }
+
+    // Valeur locale du coup (voir MCTSSolver.evaluateMoveImmediateValue)
+    int value(CompactBoard board, int move) {
+        int type = PackedMove.typeOrdinal(move);
+        if (type != TABLEAU_TO_TABLEAU) return values[type * 4];
+
+        int src = PackedMove.source(move);
+        int remaining = board.columnSize(src) - PackedMove.length(move);
+        int flags = 0;
+        if (remaining > 0) {
+            if (remaining <= board.faceDownCount(src)) flags |= REVEAL;
+            if (CompactBoard.rankOf(PackedMove.card(move)) == 13) flags |= KING;
+        }
+        return values[type * 4 + flags];
+    }
+
+    // Coup joué par la simulation parmi moves[0..count)
+    int select(CompactBoard board, int[] moves, int count) {
+        // Hasard pour l'exploration
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < RANDOM_MOVE_RATE) return moves[random.nextInt(count)];
+
+        // Sinon, meilleur coup local (le premier en cas d'égalité, comme Stream.max)
+        int best = moves[0];
+        int bestValue = value(board, best);
+        for (int i = 1; i < count; i++) {
+            int value = value(board, moves[i]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+}
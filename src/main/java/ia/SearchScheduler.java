@@ -0,0 +1,66 @@
+package ia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+// Partage des cœurs entre les deux niveaux de parallélisme des traitements par lots (benchmark,
+// entraînement, recherche de graines) : plusieurs parties en même temps, et plusieurs threads de
+// simulation par recherche. Chaque niveau a son propre pool, hors du pool commun de la JVM :
+//   parties      : une partie par thread, au plus une par cœur,
+//   simulations  : les cœurs restants divisés entre les parties (parties × threads ≤ cœurs).
+// Avec au moins autant de parties que de cœurs, chaque recherche tourne seule sur le thread de
+// sa partie (aucun fork/join).
+//
+// Usage : scheduler.forEachGame(n, i -> { ... scheduler.configure(solver) ... }), puis close().
+public final class SearchScheduler implements AutoCloseable {
+    private final ForkJoinPool gamePool;
+    private final ForkJoinPool searchPool; // null si une recherche = un thread
+    private final int concurrentGames;
+    private final int threadsPerSearch;
+
+    // 'cores' cœurs pour jouer 'games' parties
+    public SearchScheduler(int cores, int games) {
+        if (cores < 1) throw new IllegalArgumentException("Au moins un cœur : " + cores);
+        concurrentGames = Math.max(1, Math.min(games, cores));
+        threadsPerSearch = Math.max(1, cores / concurrentGames);
+        gamePool = new ForkJoinPool(concurrentGames);
+        searchPool = threadsPerSearch > 1 ? new ForkJoinPool(concurrentGames * threadsPerSearch) : null;
+    }
+
+    // Tous les cœurs de la machine
+    public static SearchScheduler forGames(int games) {
+        return new SearchScheduler(Runtime.getRuntime().availableProcessors(), games);
+    }
+
+    // Le solveur cherchera avec sa part des cœurs
+    public MCTSSolver configure(MCTSSolver solver) {
+        return solver.setExecutor(searchPool).setSearchThreads(threadsPerSearch);
+    }
+
+    // Joue game(0) ... game(count - 1) sur le pool des parties et attend la fin
+    public void forEachGame(int count, IntConsumer game) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> game.accept(index)));
+        }
+        gamePool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    public int getConcurrentGames() {
+        return concurrentGames;
+    }
+
+    public int getThreadsPerSearch() {
+        return threadsPerSearch;
+    }
+
+    @Override
+    public void close() {
+        gamePool.shutdown();
+        if (searchPool != null) searchPool.shutdown();
+    }
+}
@@ -0,0 +1,77 @@
+package ia;
+
+import core.*;
+
+import java.time.Duration;
+import java.util.List;
+
+// Recherche arborescente qui garde son arbre d'un coup à l'autre (parties jouées par l'IA).
+// Après le coup joué, la branche correspondante devient la nouvelle racine avec toutes ses
+// statistiques : on ne lance que les simulations qui manquent pour atteindre le budget.
+// Si la position ne correspond à aucune branche (partie rechargée, coup joué par l'humain...),
+// on repart d'un arbre neuf. C'est aussi le cas après une simple pioche avec les coups composés
+// (MCTSSolver.MoveModel.STOCK_MACROS) : la position n'est que le début d'un coup de la racine.
+//
+// Usage : une session par partie, et findBestMove(board) à chaque coup comme avec MCTSSolver.
+// En mode FLAT (le mode par défaut du solveur), il n'y a pas d'arbre à garder : la session
+// se contente d'appeler MCTSSolver.findBestMove et de compter ses simulations (aucune réutilisée).
+public class SearchSession {
+    private final MCTSSolver solver;
+    private TreeSearch search;
+
+    private long simulationsRun;    // Simulations réellement lancées
+    private long simulationsReused; // Simulations héritées de la recherche précédente
+
+    public SearchSession(MCTSSolver solver) {
+        this.solver = solver;
+    }
+
+    public Move findBestMove(Board board) {
+        return findBestMove(board, solver.getSimulationCount(), null);
+    }
+
+    // Même budget que MCTSSolver.findBestMove(board, maxRollouts, timeBudget) ; les simulations
+    // héritées de l'arbre gardé comptent dans 'maxRollouts'
+    public Move findBestMove(Board board, int maxRollouts, Duration timeBudget) {
+        if (maxRollouts < 0) throw new IllegalArgumentException("Budget de simulations négatif : " + maxRollouts);
+        if (solver.getSearchMode() == MCTSSolver.SearchMode.FLAT) {
+            long before = solver.flatRollouts();
+            Move best = solver.findBestMove(board, maxRollouts, timeBudget);
+            simulationsRun += solver.flatRollouts() - before;
+            return best;
+        }
+        long deadline = MCTSSolver.deadline(timeBudget);
+        List<Move> availableMoves = board.getValidMoves();
+        if (availableMoves.isEmpty()) return null;
+
+        Move instinct = solver.instinctMove(board, availableMoves);
+        if (instinct != null) return instinct;
+
+        CompactBoard position = CompactBoard.fromBoard(board);
+        if (search == null || !search.advanceTo(position)) search = solver.newSearch(position);
+
+        int reused = Math.min(search.rootVisits(), maxRollouts);
+        simulationsRun += search.search(maxRollouts - reused, deadline);
+        simulationsReused += reused;
+
+        return MCTSSolver.firstStep(availableMoves, search.bestMove());
+    }
+
+    // Oublie l'arbre (nouvelle partie)
+    public void reset() {
+        search = null;
+    }
+
+    // Mémoire de l'arbre gardé (nœuds et arcs utilisés / réservés), vide avant la première recherche
+    public String getMemoryReport() {
+        return search == null ? "" : search.memoryReport();
+    }
+
+    public long getSimulationsRun() {
+        return simulationsRun;
+    }
+
+    public long getSimulationsReused() {
+        return simulationsReused;
+    }
+}
@@ -4,7 +4,6 @@ import core.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.LongStream;
 
 public class SeedClassifier {
 
@@ -34,20 +33,22 @@ public class SeedClassifier {
         AtomicInteger processed = new AtomicInteger(0);
         long startTime = System.currentTimeMillis();
 
-        // Analyse Parallèle sur TA liste
-        LongStream.of(SEEDS_TO_TEST).parallel().forEach(seed -> {
-            String category = classify(seed);
-
-            if (category != null) {
-                classifiedSeeds.get(category).add(seed);
-            } else {
-                // Optionnel : Afficher celles qui sont impossibles/trop dures
-                // System.out.println("Seed " + seed + " non résolue (trop dure ?)");
-            }
-
-            int count = processed.incrementAndGet();
-            if (count % 5 == 0) System.out.print(".");
-        });
+        // Analyse Parallèle sur TA liste (une graine par cœur, voir SearchScheduler)
+        try (SearchScheduler scheduler = SearchScheduler.forGames(SEEDS_TO_TEST.length)) {
+            scheduler.forEachGame(SEEDS_TO_TEST.length, i -> {
+                String category = classify(SEEDS_TO_TEST[i], scheduler);
+
+                if (category != null) {
+                    classifiedSeeds.get(category).add(SEEDS_TO_TEST[i]);
+                } else {
+                    // Optionnel : Afficher celles qui sont impossibles/trop dures
+                    // System.out.println("Seed " + seed + " non résolue (trop dure ?)");
+                }
+
+                int count = processed.incrementAndGet();
+                if (count % 5 == 0) System.out.print(".");
+            });
+        }
 
         long duration = (System.currentTimeMillis() - startTime) / 1000;
         System.out.println("\n\n✅ Analyse terminée en " + duration + "s.");
@@ -60,24 +61,24 @@ public class SeedClassifier {
     }
 
     // Détermine la catégorie d'une graine
-    private static String classify(long seed) {
+    private static String classify(long seed, SearchScheduler scheduler) {
         // 1. Test TRÈS FACILE / FACILE (IA Bête - 50 sims)
-        if (canSolve(seed, 50)) return "EASY";
+        if (canSolve(seed, 50, scheduler)) return "EASY";
 
         // 2. Test MOYEN (IA Standard - 200 sims)
-        if (canSolve(seed, 200)) return "MEDIUM";
+        if (canSolve(seed, 200, scheduler)) return "MEDIUM";
 
         // 3. Test DIFFICILE (IA Forte - 1000 sims)
-        if (canSolve(seed, 1000)) return "HARD";
+        if (canSolve(seed, 1000, scheduler)) return "HARD";
 
         // 4. Test EXTRÊME (IAmax - 5000 sims)
-        if (canSolve(seed, 5000)) return "EXTREME";
+        if (canSolve(seed, 5000, scheduler)) return "EXTREME";
 
         return null; // Trop dur ou impossible
     }
 
     // Helper pour tester une résolution
-    private static boolean canSolve(long seed, int sims) {
+    private static boolean canSolve(long seed, int sims, SearchScheduler scheduler) {
         // On tente 2 fois pour la stabilité
         for(int i=0; i<2; i++) {
             Board board = new Board();
@@ -85,7 +86,7 @@ public class SeedClassifier {
 
             // On suppose que tu as le constructeur MCTSSolver(params, simulationCount)
             // Si tu ne l'as pas, utilise le constructeur standard, mais le classement sera moins précis
-            MCTSSolver solver = new MCTSSolver(new AIParams(), sims);
+            MCTSSolver solver = scheduler.configure(new MCTSSolver(new AIParams(), sims));
 
             int moves = 0;
             while (!board.isGameWon() && moves < 200) {
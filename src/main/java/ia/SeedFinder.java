@@ -4,7 +4,6 @@ import java.util.Collections;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
 import core.*;
 
 public class SeedFinder {
@@ -17,35 +16,36 @@ public class SeedFinder {
         List<Long> winningSeeds = Collections.synchronizedList(new ArrayList<>());
         AtomicInteger attempts = new AtomicInteger(0);
 
-        // On cherche en parallèle jusqu'à avoir trouvé assez de graines
-        // Note : On utilise une stream infinie qu'on arrêtera manuellement
-        IntStream.generate(attempts::getAndIncrement)
-                .parallel()
-                .filter(i -> winningSeeds.size() < TARGET_WINS)
-                .forEach(i -> {
-                    long seed = System.nanoTime() + (i * 9999L); // Génération de graine unique
+        // On cherche en parallèle jusqu'à avoir trouvé assez de graines :
+        // chaque thread de parties enchaîne les essais (voir SearchScheduler)
+        SearchScheduler scheduler = SearchScheduler.forGames(TARGET_WINS);
+        scheduler.forEachGame(scheduler.getConcurrentGames(), worker -> {
+            while (winningSeeds.size() < TARGET_WINS) {
+                int i = attempts.getAndIncrement();
+                long seed = System.nanoTime() + (i * 9999L); // Génération de graine unique
 
-                    if (isWinnable(seed)) {
-                        winningSeeds.add(seed);
-                        System.out.print("💎"); // Petit indicateur visuel
+                if (isWinnable(seed, scheduler)) {
+                    winningSeeds.add(seed);
+                    System.out.print("💎"); // Petit indicateur visuel
 
-                        // Si on a fini, on affiche tout le bloc
-                        if (winningSeeds.size() == TARGET_WINS) {
-                            printJavaArray(winningSeeds);
-                            System.exit(0); // On coupe tout brutalement quand c'est fini
-                        }
+                    // Si on a fini, on affiche tout le bloc
+                    if (winningSeeds.size() == TARGET_WINS) {
+                        printJavaArray(winningSeeds);
+                        System.exit(0); // On coupe tout brutalement quand c'est fini
                     }
-                });
+                }
+            }
+        });
     }
 
     // Joue une partie rapide avec l'IA actuelle
-    private static boolean isWinnable(long seed) {
+    private static boolean isWinnable(long seed, SearchScheduler scheduler) {
         Board board = new Board();
         board.newGame(seed);
 
         // On utilise le mode "Training" (rapide) ou normal selon la puissance de ton PC
         // Ici on met 'false' (500 sims) pour être sûr que si on dit "gagnable", elle l'est vraiment.
-        MCTSSolver solver = new MCTSSolver(new AIParams(), false);
+        MCTSSolver solver = scheduler.configure(new MCTSSolver(new AIParams(), false));
 
         int moves = 0;
         while (!board.isGameWon() && moves < 250) {
@@ -1,14 +1,25 @@
 package ia;
 
 import core.*;
+
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SolitaireBenchmark {
     // Nombre de parties à jouer (commence par 50 ou 100)
     private static final int TOTAL_GAMES = 50;
     // Limite de coups pour éviter les parties infinies
     private static final int MAX_MOVES_PER_GAME = 400;
+    // Budget par coup : 1000 simulations, mais jamais plus de ce temps (coût par partie prévisible)
+    private static final int ROLLOUTS_PER_MOVE = 1000;
+    private static final Duration MAX_TIME_PER_MOVE = Duration.ofMillis(250);
+
+    // Simulations lancées / héritées de la recherche précédente (réutilisation de l'arbre, mode TREE seulement)
+    private static final AtomicLong simulationsRun = new AtomicLong();
+    private static final AtomicLong simulationsReused = new AtomicLong();
+    // Simulations évitées par l'arrêt anticipé
+    private static final AtomicLong rolloutsSaved = new AtomicLong();
 
     public static void main(String[] args) {
         System.out.println("=== Démarrage du Benchmark Solitaire AI ===");
@@ -19,15 +30,18 @@ public class SolitaireBenchmark {
         AtomicInteger totalMoves = new AtomicInteger(0);
 
         // Utilisation du parallélisme pour utiliser tous les cœurs de ton processeur
-        IntStream.range(0, TOTAL_GAMES).parallel().forEach(i -> {
-            if (playSingleGame(i)) {
-                wins.incrementAndGet();
-                // Petit point pour montrer que ça avance (optionnel)
-                System.out.print(".");
-            } else {
-                System.out.print("x");
-            }
-        });
+        // (parties en parallèle, et threads de recherche avec les cœurs qui restent)
+        try (SearchScheduler scheduler = SearchScheduler.forGames(TOTAL_GAMES)) {
+            scheduler.forEachGame(TOTAL_GAMES, i -> {
+                if (playSingleGame(i, scheduler)) {
+                    wins.incrementAndGet();
+                    // Petit point pour montrer que ça avance (optionnel)
+                    System.out.print(".");
+                } else {
+                    System.out.print("x");
+                }
+            });
+        }
 
         long endTime = System.currentTimeMillis();
         double duration = (endTime - startTime) / 1000.0;
@@ -38,27 +52,35 @@ public class SolitaireBenchmark {
         System.out.println("Taux de succès : " + (wins.get() * 100.0 / TOTAL_GAMES) + "%");
         System.out.println("Temps total    : " + duration + " secondes");
         System.out.println("Vitesse        : " + (TOTAL_GAMES / duration) + " parties/seconde");
+        long total = simulationsRun.get() + simulationsReused.get();
+        System.out.println("Simulations    : " + simulationsRun.get() + " lancées, "
+                + (total == 0 ? 0 : simulationsReused.get() * 100 / total) + "% réutilisées, "
+                + rolloutsSaved.get() + " économisées par l'arrêt anticipé");
     }
 
-    private static boolean playSingleGame(int seedOffset) {
+    private static boolean playSingleGame(int seedOffset, SearchScheduler scheduler) {
         Board board = new Board();
         // On change la graine à chaque partie pour avoir des donnes différentes
         board.newGame(System.currentTimeMillis() + seedOffset);
 
-        MCTSSolver solver = new MCTSSolver();
+        MCTSSolver solver = scheduler.configure(new MCTSSolver().setEarlyStopping(true));
+        SearchSession session = new SearchSession(solver);
         int moves = 0;
 
         while (!board.isGameWon() && moves < MAX_MOVES_PER_GAME) {
-            Move bestMove = solver.findBestMove(board);
+            Move bestMove = session.findBestMove(board, ROLLOUTS_PER_MOVE, MAX_TIME_PER_MOVE);
 
             if (bestMove == null) {
-                return false; // Bloqué
+                break; // Bloqué
             }
 
             board.applyMove(bestMove);
             moves++;
         }
 
+        simulationsRun.addAndGet(session.getSimulationsRun());
+        simulationsReused.addAndGet(session.getSimulationsReused());
+        rolloutsSaved.addAndGet(solver.getRolloutsSaved());
         return board.isGameWon();
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package ia;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Table de transposition de taille fixe pour UctTree : hash de la position (CompactBoard.hash)
+// -> nœud de l'arbre qui la représente (index dans NodeArena), avec ses statistiques.
+// Au Klondike, une même position s'atteint par plusieurs ordres de coups (déplacements entre
+// colonnes, montées en fondation...) : l'arbre partage alors un seul nœud au lieu de simuler
+// chaque copie depuis zéro.
+//
+// Une entrée n'est retrouvée qu'à la même profondeur (nombre de coups depuis la racine d'origine) :
+// chaque arc va de la profondeur d à d + 1, donc l'arbre partagé reste sans cycle.
+//
+// Seaux de deux entrées (remplacement à deux niveaux) :
+//   niveau 1 : l'entrée la moins profonde (la plus proche de la racine, donc la plus visitée),
+//   niveau 2 : la dernière entrée arrivée, remplacée à chaque fois.
+// La mémoire ne dépend que de la taille choisie, jamais de la durée de la recherche.
+//
+// Utilisable par plusieurs threads sans verrou : une entrée est deux longs, data = (profondeur << 32) | nœud
+// et check = clé ^ data. Une entrée à moitié écrite par un autre thread ne vérifie pas clé ^ data
+// et compte comme absente : on perd un partage, jamais la cohérence.
+final class TranspositionTable {
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] checks;
+    private final long[] data;   // 0 = case vide (une entrée a toujours une profondeur >= 1)
+    private final int bucketMask;
+
+    // Les entrées moins profondes que ça sont au-dessus de la racine actuelle : plus atteignables
+    private volatile int minDepth;
+
+    private final LongAdder hits = new LongAdder();
+
+    // 'entries' est arrondi à la puissance de deux inférieure (au moins un seau)
+    TranspositionTable(int entries) {
+        int buckets = Integer.highestOneBit(Math.max(1, entries / 2));
+        checks = new long[buckets * 2];
+        data = new long[buckets * 2];
+        bucketMask = buckets - 1;
+    }
+
+    // Nœud enregistré pour cette position à cette profondeur, NodeArena.NONE sinon
+    int find(long key, int depth) {
+        int slot = slot(key);
+        for (int i = slot; i < slot + 2; i++) {
+            long d = (long) LONGS.getAcquire(data, i);
+            if (d != 0 && ((long) LONGS.getAcquire(checks, i) ^ d) == key && depthOf(d) == depth) {
+                hits.increment();
+                return (int) d;
+            }
+        }
+        return NodeArena.NONE;
+    }
+
+    void store(long key, int depth, int node) {
+        int slot = slot(key);
+        long d = (long) depth << 32 | node;
+        long first = (long) LONGS.getAcquire(data, slot);
+        if (isFree(first) || depth <= depthOf(first)) {
+            // Nouvelle entrée de niveau 1 : l'ancienne descend au niveau 2
+            if (!isFree(first)) write(slot + 1, (long) LONGS.getAcquire(checks, slot), first);
+            write(slot, key ^ d, d);
+        } else {
+            write(slot + 1, key ^ d, d);
+        }
+    }
+
+    // La racine est maintenant à cette profondeur : les entrées au-dessus deviennent des cases libres.
+    // Jamais pendant une recherche.
+    void setRootDepth(int depth) {
+        minDepth = depth;
+    }
+
+    void clear() {
+        Arrays.fill(data, 0);
+    }
+
+    // Après NodeArena.compact : nouvel index de chaque nœud (NONE = nœud abandonné, entrée effacée)
+    void remap(int[] forward, int nodeCount) {
+        for (int i = 0; i < data.length; i++) {
+            long d = data[i];
+            if (d == 0) continue;
+            int node = (int) d;
+            long key = checks[i] ^ d;
+            if (isFree(d) || node >= nodeCount || forward[node] == NodeArena.NONE) {
+                data[i] = 0;
+                continue;
+            }
+            long moved = (long) depthOf(d) << 32 | forward[node];
+            write(i, key ^ moved, moved);
+        }
+    }
+
+    private int slot(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * 2;
+    }
+
+    private void write(int i, long check, long d) {
+        LONGS.setRelease(checks, i, check);
+        LONGS.setRelease(data, i, d);
+    }
+
+    private static int depthOf(long d) {
+        return (int) (d >>> 32);
+    }
+
+    private boolean isFree(long d) {
+        return d == 0 || depthOf(d) < minDepth;
+    }
+
+    int capacity() {
+        return data.length;
+    }
+
+    // Nombre de transpositions trouvées (nœuds partagés au lieu d'être créés)
+    long hits() {
+        return hits.sum();
+    }
+}
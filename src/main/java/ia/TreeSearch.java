@@ -0,0 +1,97 @@
+package ia;
+
+import core.CompactBoard;
+
+import java.util.Arrays;
+
+// Recherche arborescente d'une décision, sur un ou plusieurs threads :
+//   TREE : un seul arbre, descendu par tous les threads à la fois (voir UctTree),
+//   ROOT : un arbre indépendant par thread, les visites des coups de la racine sont additionnées.
+// Le mode ROOT sert surtout de point de comparaison pour le parallélisme dans l'arbre.
+final class TreeSearch {
+    private final MCTSSolver solver;
+    private final UctTree[] trees;
+    private final int threads;
+
+    TreeSearch(MCTSSolver solver, UctTree[] trees, int threads) {
+        this.solver = solver;
+        this.trees = trees;
+        this.threads = threads;
+    }
+
+    // Voir UctTree.advanceTo : tous les arbres avancent, sinon il faut repartir de zéro
+    boolean advanceTo(CompactBoard position) {
+        for (UctTree tree : trees) {
+            if (!tree.advanceTo(position)) return false;
+        }
+        return true;
+    }
+
+    // Au plus 'iterations' itérations, arrêtées à l'échéance (voir MCTSSolver.deadline).
+    // Renvoie le nombre d'itérations faites.
+    int search(int iterations, long deadline) {
+        if (trees.length == 1) return trees[0].search(iterations, deadline, threads);
+        // Itérations réparties le plus également possible entre les arbres (temps seul : pas de limite pour chacun)
+        int[] done = new int[trees.length];
+        solver.runWorkers(trees.length, t -> done[t] = trees[t].search(iterations == Integer.MAX_VALUE ? iterations
+                : iterations / trees.length + (t < iterations % trees.length ? 1 : 0), deadline, 1));
+        return Arrays.stream(done).sum();
+    }
+
+    // Coup le plus visité, tous arbres confondus (voir MCTSSolver.firstStep pour le coup à jouer)
+    int bestMove() {
+        return trees[0].rootChildMove(bestChildIndex());
+    }
+
+    // Index du coup le plus visité, tous arbres confondus (ordre de MCTSSolver.generateMoves)
+    int bestChildIndex() {
+        if (trees.length == 1) return trees[0].bestChildIndex();
+        int best = 0;
+        long bestVisits = -1;
+        for (int i = 0; i < rootChildCount(); i++) {
+            long visits = rootChildVisits(i);
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    int rootChildCount() {
+        return trees[0].rootChildCount();
+    }
+
+    // Visites du coup 'index' de la racine, tous arbres confondus
+    long rootChildVisits(int index) {
+        long visits = 0;
+        for (UctTree tree : trees) visits += tree.rootChildVisits(index);
+        return visits;
+    }
+
+    int treeCount() {
+        return trees.length;
+    }
+
+    int rootVisits() {
+        int visits = 0;
+        for (UctTree tree : trees) visits += tree.rootVisits();
+        return visits;
+    }
+
+    // Occupation et mémoire réservée des arènes de nœuds
+    String memoryReport() {
+        StringBuilder sb = new StringBuilder();
+        for (UctTree tree : trees) {
+            if (sb.length() > 0) sb.append(" | ");
+            sb.append(tree.arena().memoryReport());
+        }
+        return sb.toString();
+    }
+
+    long transpositionHits() {
+        long hits = 0;
+        for (UctTree tree : trees) hits += tree.transpositionHits();
+        return hits;
+    }
+}
@@ -0,0 +1,361 @@
+package ia;
+
+import core.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Recherche arborescente UCT (mode TREE de MCTSSolver).
+// Contrairement au Monte Carlo "à plat", chaque nœud garde ses statistiques (visites, somme des scores)
+// et la sélection descend dans l'arbre : les simulations se concentrent sur les lignes prometteuses.
+// Une itération = sélection (UCB1 ou PUCT) -> expansion -> simulation (la même que le mode FLAT)
+// -> rétropropagation du score jusqu'à la racine.
+// Avec une table de transposition, une position atteinte par deux ordres de coups différents
+// n'a qu'un seul nœud (l'arbre devient un graphe sans cycle) : la rétropropagation suit donc
+// le chemin de l'itération plutôt qu'un lien vers le parent.
+//
+// Les nœuds sont des index dans une NodeArena (tableaux de primitives alloués une fois).
+//
+// Parallélisme "dans l'arbre" : plusieurs threads descendent le même arbre, chacun avec son Worker.
+// Aucun verrou : les statistiques sont mises à jour par VarHandle (getAndAdd, compareAndSet),
+// un nœud est développé par un compareAndSet sur ses arcs (le perdant reprend ceux du gagnant),
+// et une "perte virtuelle" compte chaque thread en cours de descente comme une visite au pire score,
+// pour que les threads suivants partent explorer d'autres branches.
+final class UctTree {
+    private static final int NONE = NodeArena.NONE;
+
+    private static final VarHandle MIN_SCORE;
+    private static final VarHandle MAX_SCORE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MIN_SCORE = lookup.findVarHandle(UctTree.class, "minScore", double.class);
+            MAX_SCORE = lookup.findVarHandle(UctTree.class, "maxScore", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Plateau, tampons et chemin propres à un thread de recherche
+    private static final class Worker {
+        final CompactBoard board = new CompactBoard();
+        final int[] moves = new int[PackedMove.MAX_MOVES];
+        final double[] priors = new double[PackedMove.MAX_MOVES];
+        final PositionSet seen = MCTSSolver.newPositionSet();
+        int[] path = new int[64]; // path[0] = racine
+        int pathLength;
+    }
+
+    private final MCTSSolver solver;
+    private final AIParams params;
+    private final int virtualLoss;
+    private final NodeArena arena;
+    private final TranspositionTable table; // null si désactivée
+    private final CompactBoard rootBoard;
+    private int root;
+    private int rootDepth; // Coups joués depuis la racine d'origine (profondeur des entrées de la table)
+    private final Worker worker = new Worker(); // Recherche sur un seul thread, advanceTo
+
+    // Plus petit et plus grand score vus : les moyennes sont ramenées dans [0, 1] pour UCB1/PUCT
+    private volatile double minScore = Double.POSITIVE_INFINITY;
+    private volatile double maxScore = Double.NEGATIVE_INFINITY;
+
+    // L'arène doit pouvoir contenir au moins la racine et ses arcs
+    UctTree(MCTSSolver solver, AIParams params, CompactBoard rootBoard,
+            NodeArena arena, TranspositionTable table, int virtualLoss) {
+        this.solver = solver;
+        this.params = params;
+        this.virtualLoss = virtualLoss;
+        this.arena = arena;
+        this.table = table;
+        this.rootBoard = rootBoard.copy();
+        root = arena.newNode();
+        worker.board.copyFrom(rootBoard);
+        expand(root, worker);
+    }
+
+    // Fait de 'position' la nouvelle racine en gardant les statistiques déjà calculées :
+    // soit c'est déjà la racine, soit c'est le résultat d'un coup de la racine, coups sûrs compris (la branche
+    // correspondante est promue, le reste de l'arbre est rendu à l'arène). Renvoie false sinon.
+    // Jamais pendant une recherche.
+    boolean advanceTo(CompactBoard position) {
+        if (rootBoard.samePosition(position)) return true;
+        CompactBoard board = worker.board;
+        int first = arena.firstEdge(root);
+        for (int e = first; e < first + arena.edgeCount(root); e++) {
+            board.copyFrom(rootBoard);
+            solver.play(board, arena.move(e));
+            if (!board.samePosition(position)) continue;
+
+            rootDepth++;
+            if (table != null) table.setRootDepth(rootDepth + 1);
+            int child = arena.child(e);
+            if (child != NONE) {
+                root = arena.compact(child, table);
+            } else {
+                // Coup jamais exploré : plus rien à garder
+                arena.clear();
+                if (table != null) table.clear();
+                root = arena.newNode();
+            }
+            rootBoard.copyFrom(position);
+            if (!arena.isExpanded(root)) expand(root, worker); // 'board' est déjà sur la position
+            return true;
+        }
+        return false;
+    }
+
+    void search(int iterations) {
+        search(iterations, MCTSSolver.NO_DEADLINE, 1);
+    }
+
+    // Les 'threads' threads se partagent au plus 'iterations' itérations sur le même arbre, jusqu'à
+    // l'échéance (voir MCTSSolver.deadline). Renvoie le nombre d'itérations faites.
+    int search(int iterations, long deadline, int threads) {
+        boolean earlyStopping = solver.isEarlyStopping();
+        // Sans budget de simulations (temps seul), rien à compter comme économisé (voir getRolloutsSaved)
+        boolean rolloutBudget = iterations != Integer.MAX_VALUE;
+        threads = MCTSSolver.threadsFor(threads, iterations);
+        if (threads <= 1) {
+            int done = 0;
+            while (done < iterations && !MCTSSolver.expired(deadline)) {
+                iterate(worker);
+                done++;
+                if (earlyStopping && done % MCTSSolver.EARLY_STOP_INTERVAL == 0 && isDecided(iterations - done)) {
+                    if (rolloutBudget) solver.recordRolloutsSaved(iterations - done);
+                    break;
+                }
+            }
+            return done;
+        }
+        AtomicInteger remaining = new AtomicInteger(iterations);
+        AtomicInteger done = new AtomicInteger();
+        solver.runWorkers(threads, t -> {
+            Worker w = new Worker();
+            while (remaining.getAndDecrement() > 0 && !MCTSSolver.expired(deadline)) {
+                iterate(w);
+                int count = done.incrementAndGet();
+                if (earlyStopping && count % MCTSSolver.EARLY_STOP_INTERVAL == 0
+                        && isDecided(Math.max(0, remaining.get()))) {
+                    int saved = remaining.getAndSet(0);
+                    if (saved > 0 && rolloutBudget) solver.recordRolloutsSaved(saved);
+                }
+            }
+        });
+        return done.get();
+    }
+
+    // Le coup le plus visité ne peut plus être rattrapé en 'remaining' itérations, ou il est
+    // statistiquement au moins aussi bon que tous les autres (voir MCTSSolver.setEarlyStopping)
+    private boolean isDecided(int remaining) {
+        int first = 0;
+        int second = 0;
+        for (int i = 0; i < rootChildCount(); i++) {
+            int visits = rootChildVisits(i);
+            if (visits > first) {
+                second = first;
+                first = visits;
+            } else if (visits > second) {
+                second = visits;
+            }
+        }
+        if (first - second > remaining) return true;
+
+        int start = arena.firstEdge(root);
+        int count = rootChildCount();
+        int best = start + bestChildIndex();
+        double lowerBound = bound(arena.child(best), -1);
+        for (int e = start; e < start + count; e++) {
+            if (e != best && bound(arena.child(e), 1) > lowerBound) return false;
+        }
+        return true;
+    }
+
+    // Moyenne + sign * z * écart type / racine(n) des scores du nœud, infinie (du côté 'sign')
+    // tant qu'il n'a pas assez de visites pour conclure
+    private double bound(int node, int sign) {
+        int n = node == NONE ? 0 : arena.visits(node);
+        if (n < MCTSSolver.EARLY_STOP_MIN_SAMPLES) return sign * Double.POSITIVE_INFINITY;
+        double mean = arena.valueSum(node) / n;
+        double variance = Math.max(0, arena.valueSquares(node) / n - mean * mean);
+        return mean + sign * MCTSSolver.EARLY_STOP_Z * Math.sqrt(variance / n);
+    }
+
+    private void iterate(Worker w) {
+        CompactBoard board = w.board;
+        board.copyFrom(rootBoard);
+
+        // 1. Sélection : on descend tant que le nœud est développé.
+        // Arène pleine : le coup choisi est simulé, mais compté pour le dernier nœud du chemin.
+        int node = root;
+        w.path[0] = root;
+        w.pathLength = 1;
+        boolean full = false;
+        while (!full && arena.isExpanded(node) && arena.edgeCount(node) > 0) {
+            int child = descend(select(node), w);
+            if (child == NONE) full = true;
+            else node = child;
+        }
+
+        // 2. Expansion : à la deuxième visite d'une feuille (la première se contente d'une simulation)
+        if (!full && !arena.isExpanded(node) && arena.visits(node) > 0
+                && expand(node, w) && arena.edgeCount(node) > 0) {
+            int child = descend(select(node), w);
+            if (child != NONE) node = child;
+            else full = true;
+        }
+
+        // 3. Simulation
+        boolean terminal = !full && arena.isExpanded(node) && arena.edgeCount(node) == 0;
+        double score = terminal ? solver.calculateScore(board) : solver.simulateRandomGame(board, w.moves, w.seen);
+
+        // 4. Rétropropagation (et retrait de la perte virtuelle posée à la descente)
+        updateBounds(score);
+        for (int i = 0; i < w.pathLength; i++) {
+            arena.addVisit(w.path[i], score);
+            if (i > 0) arena.addVirtualLoss(w.path[i], -virtualLoss);
+        }
+    }
+
+    // Joue le coup de l'arc sur le plateau et ajoute son fils au chemin. À sa première visite, le fils
+    // est le nœud déjà connu pour la même position s'il y en a un, sinon un nouveau nœud.
+    // NONE si l'arène est pleine.
+    private int descend(int edge, Worker w) {
+        solver.play(w.board, arena.move(edge));
+        int child = arena.child(edge);
+        if (child == NONE) {
+            long key = table == null ? 0 : w.board.hash();
+            int depth = rootDepth + w.pathLength;
+            if (table != null) child = table.find(key, depth);
+            if (child == NONE) {
+                child = arena.newNode();
+                if (child == NONE) return NONE;
+                if (table != null) table.store(key, depth, child);
+            }
+            child = arena.setChild(edge, child);
+        }
+        arena.addVirtualLoss(child, virtualLoss);
+        if (w.pathLength == w.path.length) w.path = Arrays.copyOf(w.path, w.pathLength * 2);
+        w.path[w.pathLength++] = child;
+        return child;
+    }
+
+    // Développe le nœud (position sur w.board). Renvoie false si l'arène n'a plus la place.
+    private boolean expand(int node, Worker w) {
+        CompactBoard board = w.board;
+        int count = board.isGameWon() ? 0 : solver.generateMoves(board, w.moves);
+        if (count == 0) {
+            arena.publishEdges(node, 0, 0); // Terminal
+            return true;
+        }
+        int first = arena.newEdges(count);
+        if (first == NONE) return false;
+
+        double[] priors = w.priors;
+        if (params.priorTemperature > 0) {
+            // PUCT : prior = softmax(valeur heuristique / température)
+            double best = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                priors[i] = solver.evaluateMoveImmediateValue(board, w.moves[i]);
+                best = Math.max(best, priors[i]);
+            }
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                priors[i] = Math.exp((priors[i] - best) / params.priorTemperature);
+                sum += priors[i];
+            }
+            for (int i = 0; i < count; i++) priors[i] /= sum;
+        } else {
+            Arrays.fill(priors, 0, count, 1.0 / count);
+        }
+        for (int i = 0; i < count; i++) arena.setEdge(first + i, w.moves[i], (float) priors[i]);
+
+        // Si un autre thread a développé le nœud avant, ce bloc attend le prochain compact
+        arena.publishEdges(node, first, count);
+        return true;
+    }
+
+    // Arc à explorer. Une descente en cours compte comme une visite au score normalisé 0.
+    private int select(int node) {
+        boolean puct = params.priorTemperature > 0;
+        double c = params.explorationConstant;
+        int parentVisits = arena.visits(node) + arena.virtualLoss(node);
+        double logVisits = Math.log(Math.max(1, parentVisits));
+        double sqrtVisits = Math.sqrt(parentVisits);
+
+        int first = arena.firstEdge(node);
+        int end = first + arena.edgeCount(node);
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int e = first; e < end; e++) {
+            int child = arena.child(e);
+            int visits = child == NONE ? 0 : arena.visits(child);
+            int total = child == NONE ? 0 : visits + arena.virtualLoss(child);
+            double q = visits == 0 ? 0 : normalize(arena.valueSum(child) / visits) * visits / total;
+            double value;
+            if (puct) {
+                value = q + c * arena.prior(e) * sqrtVisits / (1 + total);
+            } else {
+                if (total == 0) return e; // UCB1 : chaque coup est essayé une fois, dans l'ordre
+                value = q + c * Math.sqrt(logVisits / total);
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    private void updateBounds(double score) {
+        double min = minScore;
+        while (score < min && !MIN_SCORE.compareAndSet(this, min, score)) min = minScore;
+        double max = maxScore;
+        while (score > max && !MAX_SCORE.compareAndSet(this, max, score)) max = maxScore;
+    }
+
+    private double normalize(double score) {
+        double min = minScore;
+        double max = maxScore;
+        return max > min ? (score - min) / (max - min) : 0.5;
+    }
+
+    // Index (dans l'ordre de MCTSSolver.generateMoves) du coup le plus visité
+    int bestChildIndex() {
+        int best = 0;
+        for (int i = 1; i < rootChildCount(); i++) {
+            if (rootChildVisits(i) > rootChildVisits(best)) best = i;
+        }
+        return best;
+    }
+
+    // Visites du coup 'index' de la racine
+    int rootChildVisits(int index) {
+        int child = arena.child(arena.firstEdge(root) + index);
+        return child == NONE ? 0 : arena.visits(child);
+    }
+
+    // Coup 'index' de la racine
+    int rootChildMove(int index) {
+        return arena.move(arena.firstEdge(root) + index);
+    }
+
+    int rootVisits() {
+        return arena.visits(root);
+    }
+
+    int rootChildCount() {
+        return arena.edgeCount(root);
+    }
+
+    long transpositionHits() {
+        return table == null ? 0 : table.hits();
+    }
+
+    NodeArena arena() {
+        return arena;
+    }
+}
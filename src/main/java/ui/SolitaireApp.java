@@ -12,11 +12,16 @@ import javafx.scene.control.TextField; // <--- Nouvel import
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+
+import java.time.Duration;
 import javafx.scene.control.ChoiceBox;
 
 
 public class SolitaireApp extends Application {
 
+    // Temps de réflexion de "Jouer 1 Coup" : la réponse arrive toujours dans ce délai
+    private static final Duration STEP_THINKING_TIME = Duration.ofMillis(500);
+
     private Board board;
     private SolitaireView gameView;
     private MCTSSolver solver;
@@ -149,7 +154,7 @@ public class SolitaireApp extends Application {
 
         // Calculer le coup dans un Thread séparé pour ne pas figer l'interface
         new Thread(() -> {
-            Move bestMove = solver.findBestMove(board);
+            Move bestMove = solver.findBestMove(board, STEP_THINKING_TIME);
 
             // Revenir sur le thread JavaFX pour mettre à jour l'interface
             Platform.runLater(() -> {
@@ -186,9 +191,11 @@ public class SolitaireApp extends Application {
         startTimer();
 
         // Lancer une boucle dans un thread séparé
+        // La session garde l'arbre de recherche d'un coup à l'autre en mode TREE (en FLAT, rien à garder)
+        SearchSession session = new SearchSession(solver);
         new Thread(() -> {
             while (isAiPlaying && !board.isGameWon()) {
-                Move bestMove = solver.findBestMove(board);
+                Move bestMove = session.findBestMove(board);
 
                 if (bestMove == null) {
                     Platform.runLater(() -> {
@@ -10,7 +10,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
 import java.util.List;
-import java.util.Stack;
 
 public class SolitaireView extends BorderPane {
     private final Board board;
@@ -65,7 +64,7 @@ public class SolitaireView extends BorderPane {
     }
 
     // Crée une vue pour une pile simple (Stock, Waste, Foundation)
-    private StackPane createCardStackView(Stack<Card> pile, boolean forceFaceDown) {
+    private StackPane createCardStackView(List<Card> pile, boolean forceFaceDown) {
         StackPane stackPane = new StackPane();
         stackPane.setPrefSize(70, 100);
 
@@ -80,7 +79,7 @@ public class SolitaireView extends BorderPane {
             stackPane.getChildren().add(placeholder);
         } else {
             // Dessiner juste la carte du dessus
-            Card top = pile.peek();
+            Card top = pile.get(pile.size() - 1);
             if (forceFaceDown) {
                 stackPane.getChildren().add(drawCard(null)); // Dos de carte
             } else {
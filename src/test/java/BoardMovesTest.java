@@ -1,7 +1,10 @@
 import core.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 class BoardMovesTest {
@@ -279,4 +282,130 @@ class BoardMovesTest {
 
         assertTrue(found, "getValidMoves aurait dû proposer TABLEAU_TO_FOUNDATION pour l'As");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUndoMove_RestoresEveryPosition() {
+        // On joue 200 coups au hasard en gardant les enregistrements, puis on annule tout
+        for (long seed = 1; seed <= 10; seed++) {
+            board.newGame(seed);
+            Random random = new Random(seed);
+            List<String> positions = new ArrayList<>();
+            List<Integer> records = new ArrayList<>();
+
+            for (int step = 0; step < 200; step++) {
+                List<Move> moves = board.getValidMoves();
+                if (moves.isEmpty()) break;
+                positions.add(TestBoards.describe(board));
+                records.add(board.applyMoveWithUndo(moves.get(random.nextInt(moves.size()))));
+            }
+
+            for (int i = records.size() - 1; i >= 0; i--) {
+                board.undoMove(records.get(i));
+                assertEquals(positions.get(i), TestBoards.describe(board), "Seed " + seed + ", coup " + i);
+            }
+        }
+    }
+
+    @Test
+    void testUndoMove_RevealAndRecycle() {
+        // Une carte retournée par le coup doit redevenir cachée
+        Tableau t0 = board.getTableaux().get(0);
+        t0.addCard(new Card(Suit.CLUBS, 10, false));
+        t0.addCard(new Card(Suit.HEARTS, 1, true));
+
+        int record = board.applyMoveWithUndo(new Move(Move.MoveType.TABLEAU_TO_FOUNDATION, null, 0, 2));
+        assertTrue(t0.peekTopCard().isFaceUp());
+
+        board.undoMove(record);
+        assertEquals(2, t0.size());
+        assertFalse(t0.getCards().get(0).isFaceUp());
+        assertTrue(board.getFoundations().get(2).isEmpty());
+
+        // Le recyclage remet toute la défausse, dans le même ordre
+        board.getWaste().push(new Card(Suit.SPADES, 4, true));
+        board.getWaste().push(new Card(Suit.SPADES, 9, true));
+        record = board.applyMoveWithUndo(new Move(Move.MoveType.RECYCLE_WASTE, null, -1, -1));
+        assertEquals(2, board.getStock().size());
+
+        board.undoMove(record);
+        assertTrue(board.getStock().isEmpty());
+        assertEquals(9, board.getWaste().peek().getRank());
+        assertTrue(board.getWaste().peek().isFaceUp());
+    }
+
+    @Test
+    void testPackedMoves_SameAsMoveObjects() {
+        // generateMoves + applyMove(int) doivent suivre exactement getValidMoves + applyMove(Move)
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        for (long seed = 1; seed <= 10; seed++) {
+            Board other = new Board();
+            board.newGame(seed);
+            other.newGame(seed);
+            Random random = new Random(seed);
+
+            for (int step = 0; step < 200; step++) {
+                List<Move> moves = board.getValidMoves();
+                int count = other.generateMoves(buffer);
+                assertEquals(moves.size(), count, "Seed " + seed + ", coup " + step);
+                for (int i = 0; i < count; i++) assertEquals(PackedMove.fromMove(moves.get(i)), buffer[i]);
+                if (count == 0) break;
+
+                int chosen = random.nextInt(count);
+                board.applyMove(moves.get(chosen));
+                other.applyMove(buffer[chosen]);
+                assertEquals(TestBoards.describe(board), TestBoards.describe(other));
+                assertEquals(board.getGameStateHash(), other.getGameStateHash());
+            }
+        }
+    }
+
+    @Test
+    void testTableauToTableau_SameAsTryingEveryLength() {
+        // Référence : l'ancienne génération, qui essaie chaque longueur visible sur chaque colonne
+        for (long seed = 1; seed <= 10; seed++) {
+            board.newGame(seed);
+            Random random = new Random(seed);
+
+            for (int step = 0; step < 200; step++) {
+                List<Move> expected = new ArrayList<>();
+                for (int src = 0; src < 7; src++) {
+                    Tableau t = board.getTableaux().get(src);
+                    for (int len = 1; len <= t.getVisibleCount(); len++) {
+                        Card bottom = t.getCards().get(t.size() - len);
+                        for (int dest = 0; dest < 7; dest++) {
+                            if (dest != src && board.getTableaux().get(dest).canAddCard(bottom))
+                                expected.add(new Move(Move.MoveType.TABLEAU_TO_TABLEAU, bottom, src, dest).setSequenceLength(len));
+                        }
+                    }
+                }
+
+                List<Move> moves = board.getValidMoves();
+                List<String> actual = moves.stream().filter(m -> m.getType() == Move.MoveType.TABLEAU_TO_TABLEAU)
+                        .map(m -> m + "/" + m.getSequenceLength()).toList();
+                assertEquals(expected.stream().map(m -> m + "/" + m.getSequenceLength()).toList(), actual,
+                        "Seed " + seed + ", coup " + step);
+
+                if (moves.isEmpty()) break;
+                board.applyMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+
+    @Test
+    void testGenerateMoves_AllocatesNothing() {
+        // Mesure de la JVM HotSpot (octets alloués par le thread) ; ailleurs le test ne vérifie rien
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)) return;
+        board.newGame(7L);
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        for (int i = 0; i < 20_000; i++) board.generateMoves(buffer);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int total = 0;
+        for (int i = 0; i < 10_000; i++) total += board.generateMoves(buffer);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(total > 0);
+        // Un tableau de 52 int par appel ferait plus de 2 Mo
+        assertTrue(allocated < 64 * 1024, allocated + " octets alloués");
+    }
+}
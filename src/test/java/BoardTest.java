@@ -1,5 +1,10 @@
 import core.*;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BoardTest {
@@ -79,8 +84,7 @@ class BoardTest {
         // A. Remplir le Waste (pour entrer dans if (!waste.isEmpty()))
         if (!board.getStock().isEmpty()) {
             Card c = board.getStock().pop();
-            c.flip(); // Important car le hash utilise souvent le hash de la carte visible
-            board.getWaste().push(c);
+            board.getWaste().push(c.flipped()); // Important car le hash utilise souvent le hash de la carte visible
         }
 
         // B. Vider un Tableau (pour ne PAS entrer dans if (!t.isEmpty()))
@@ -110,4 +114,179 @@ class BoardTest {
 
         assertTrue(board.isGameWon(), "Devrait retourner true si toutes les fondations ont un Roi");
     }
+
+    @Test
+    void testZobrist_IncrementalMatchesRecomputation() {
+        Board board = new Board();
+        board.newGame(77L);
+        Random random = new Random(77L);
+
+        for (int step = 0; step < 300; step++) {
+            List<Move> moves = board.getValidMoves();
+            if (moves.isEmpty()) break;
+            long before = board.getGameStateHash();
+
+            int record = board.applyMoveWithUndo(moves.get(random.nextInt(moves.size())));
+
+            // La clé tenue à jour coup par coup = la clé recalculée depuis zéro
+            Board copy = board.clone();
+            copy.rehash();
+            assertEquals(copy.getGameStateHash(), board.getGameStateHash());
+
+            // L'annulation restaure aussi la clé
+            board.undoMove(record);
+            assertEquals(before, board.getGameStateHash());
+            board.applyMoveWithUndo(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    void testUndoRecord_FlipFlagOutsidePackedMoveBits() {
+        // Le 9 de cœur part sur le 10 de pique et découvre le 5 de trèfle
+        Board board = new Board();
+        board.getTableaux().get(0).addCard(new Card(Suit.CLUBS, 5, false));
+        board.getTableaux().get(0).addCard(new Card(Suit.HEARTS, 9, true));
+        board.getTableaux().get(1).addCard(new Card(Suit.SPADES, 10, true));
+        long before = board.getGameStateHash();
+
+        int record = board.applyMoveWithUndo(new Move(Move.MoveType.TABLEAU_TO_TABLEAU, null, 0, 1));
+        assertTrue(board.getTableaux().get(0).peekTopCard().isFaceUp());
+        // Le drapeau "carte retournée" n'est pas celui des coups composés
+        assertFalse(PackedMove.drawsFirst(record));
+
+        board.undoMove(record);
+        assertFalse(board.getTableaux().get(0).getCards().get(0).isFaceUp());
+        assertEquals(9, board.getTableaux().get(0).peekTopCard().getRank());
+        assertEquals(before, board.getGameStateHash());
+    }
+
+    @Test
+    void testApplyMove_RejectsStockMacros() {
+        // L'As de cœur est sous le 7 de pique dans la pioche : seul un coup composé le joue directement
+        Board board = new Board();
+        board.getStock().push(Card.of(Suit.HEARTS, 1, false));
+        board.getStock().push(Card.of(Suit.SPADES, 7, false));
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        int count = CompactBoard.fromBoard(board).generateMacroMoves(moves);
+        int ace = Card.of(Suit.HEARTS, 1, false).getCode();
+        int macro = -1;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.drawsFirst(moves[i]) && PackedMove.card(moves[i]) == ace) macro = moves[i];
+        }
+        assertNotEquals(-1, macro);
+        long before = board.getGameStateHash();
+
+        int move = macro;
+        assertThrows(IllegalArgumentException.class, () -> board.applyMove(move));
+        assertThrows(IllegalArgumentException.class, () -> board.applyMoveWithUndo(move));
+        assertEquals(before, board.getGameStateHash());
+        assertEquals(2, board.getStock().size());
+        assertTrue(board.getFoundations().get(0).isEmpty());
+    }
+
+    @Test
+    void testZobrist_DistinguishesBuriedCardsAndWasteDepth() {
+        // Même sommet, même taille : seule la carte visible enfouie diffère
+        Board b1 = new Board();
+        b1.getTableaux().get(0).addCard(new Card(Suit.SPADES, 10, true));
+        b1.getTableaux().get(0).addCard(new Card(Suit.HEARTS, 9, true));
+        Board b2 = new Board();
+        b2.getTableaux().get(0).addCard(new Card(Suit.CLUBS, 10, true));
+        b2.getTableaux().get(0).addCard(new Card(Suit.HEARTS, 9, true));
+        assertNotEquals(b1.getGameStateHash(), b2.getGameStateHash());
+
+        // Même sommet de défausse, profondeur différente
+        b1.getWaste().push(new Card(Suit.CLUBS, 2, true));
+        b1.getWaste().push(new Card(Suit.CLUBS, 5, true));
+        b1.rehash();
+        b2 = b1.clone();
+        b2.getWaste().add(0, new Card(Suit.DIAMONDS, 7, true));
+        b2.rehash();
+        assertNotEquals(b1.getGameStateHash(), b2.getGameStateHash());
+
+        // Même carte, face différente
+        Board b3 = new Board();
+        b3.getTableaux().get(1).addCard(new Card(Suit.CLUBS, 4, false));
+        Board b4 = new Board();
+        b4.getTableaux().get(1).addCard(new Card(Suit.CLUBS, 4, true));
+        assertNotEquals(b3.getGameStateHash(), b4.getGameStateHash());
+    }
+
+    @Test
+    void testZobrist_TranspositionsShareTheHash() {
+        // Deux ordres de coups différents, même position finale
+        Board b1 = new Board();
+        Board b2 = new Board();
+        for (Board b : List.of(b1, b2)) {
+            b.getTableaux().get(0).addCard(new Card(Suit.CLUBS, 1, true));
+            b.getTableaux().get(1).addCard(new Card(Suit.HEARTS, 1, true));
+        }
+        b1.applyMove(new Move(Move.MoveType.TABLEAU_TO_FOUNDATION, null, 0, 0));
+        b1.applyMove(new Move(Move.MoveType.TABLEAU_TO_FOUNDATION, null, 1, 2));
+        b2.applyMove(new Move(Move.MoveType.TABLEAU_TO_FOUNDATION, null, 1, 2));
+        b2.applyMove(new Move(Move.MoveType.TABLEAU_TO_FOUNDATION, null, 0, 0));
+
+        assertEquals(b1.getGameStateHash(), b2.getGameStateHash());
+    }
+
+    @Test
+    void testClone_CopyOnWriteKeepsBothSidesIndependent() {
+        // Les piles sont partagées après clone() : jouer sur l'un ou l'autre ne doit rien changer à l'autre
+        Board original = new Board();
+        original.newGame(321L);
+        Board copy = original.clone();
+        List<String> before = snapshot(original);
+        Random random = new Random(321L);
+
+        for (int step = 0; step < 100; step++) {
+            List<Move> moves = copy.getValidMoves();
+            if (moves.isEmpty()) break;
+            copy.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+        assertEquals(before, snapshot(original));
+
+        List<String> played = snapshot(copy);
+        Board second = copy.clone();
+        for (int step = 0; step < 100; step++) {
+            List<Move> moves = copy.getValidMoves();
+            if (moves.isEmpty()) break;
+            copy.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+        assertEquals(played, snapshot(second));
+    }
+
+    private static List<String> snapshot(Board b) {
+        List<String> piles = new ArrayList<>();
+        piles.add(b.getStock().toString());
+        piles.add(b.getWaste().toString());
+        for (Foundation f : b.getFoundations()) piles.add(f.getCards().toString());
+        for (Tableau t : b.getTableaux()) piles.add(t.getCards().stream().map(c -> c.getCode() + (c.isFaceUp() ? "+" : "-")).toList().toString());
+        piles.add(Long.toString(b.getGameStateHash()));
+        return piles;
+    }
+
+    @Test
+    void testCardMasks_FollowEveryMove() {
+        Board board = new Board();
+        board.newGame(99L);
+        Random random = new Random(99L);
+
+        for (int step = 0; step < 300; step++) {
+            long faceUp = 0, stock = 0, foundation = 0;
+            for (Card c : board.getStock()) stock |= Rules.bit(c.getCode());
+            for (Card c : board.getWaste()) faceUp |= Rules.bit(c.getCode());
+            for (Foundation f : board.getFoundations()) for (Card c : f.getCards()) foundation |= Rules.bit(c.getCode());
+            for (Tableau t : board.getTableaux()) for (Card c : t.getCards()) if (c.isFaceUp()) faceUp |= Rules.bit(c.getCode());
+            faceUp |= foundation;
+
+            assertEquals(stock, board.getStockMask());
+            assertEquals(foundation, board.getFoundationMask());
+            assertEquals(faceUp, board.getFaceUpMask());
+
+            List<Move> moves = board.getValidMoves();
+            if (moves.isEmpty()) break;
+            int record = board.applyMoveWithUndo(moves.get(random.nextInt(moves.size())));
+            if (step % 3 == 0) board.undoMove(record); // Les annulations aussi
+        }
+    }
 }
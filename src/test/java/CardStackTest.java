@@ -0,0 +1,66 @@
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.EmptyStackException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardStackTest {
+
+    private final Card c1 = Card.of(Suit.SPADES, 13, true);
+    private final Card c2 = Card.of(Suit.HEARTS, 12, true);
+    private final Card c3 = Card.of(Suit.CLUBS, 11, true);
+
+    @Test
+    void testPushPopPeek() {
+        CardStack stack = new CardStack(4);
+        assertTrue(stack.isEmpty());
+        assertThrows(EmptyStackException.class, stack::peek);
+        assertThrows(EmptyStackException.class, stack::pop);
+
+        stack.push(c1);
+        stack.push(c2);
+        assertEquals(2, stack.size());
+        assertSame(c2, stack.peek());
+        assertSame(c2, stack.pop());
+        assertSame(c1, stack.peek());
+        assertEquals(List.of(c1), stack);
+    }
+
+    @Test
+    void testGrowsPastCapacity() {
+        CardStack stack = new CardStack(1);
+        stack.push(c1);
+        stack.push(c2);
+        stack.add(0, c3);
+        assertEquals(List.of(c3, c1, c2), stack);
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.get(3));
+    }
+
+    @Test
+    void testMoveTopTo_KeepsOrder() {
+        CardStack source = new CardStack(4);
+        source.push(c1);
+        source.push(c2);
+        source.push(c3);
+        CardStack dest = new CardStack(1);
+        dest.push(Card.of(Suit.DIAMONDS, 1, false));
+
+        source.moveTopTo(dest, 2);
+        assertEquals(List.of(c1), source);
+        assertEquals(List.of(Card.of(Suit.DIAMONDS, 1, false), c2, c3), dest);
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        CardStack original = new CardStack(4);
+        original.push(c1);
+        CardStack copy = original.copy();
+        copy.push(c2);
+        copy.set(0, c3);
+
+        assertEquals(List.of(c1), original);
+        assertEquals(List.of(c3, c2), copy);
+    }
+}
@@ -40,15 +40,29 @@ class CardTest {
     }
 
     @Test
-    void testFlip() {
-        Card c = new Card(Suit.DIAMONDS, 5, false);
+    void testFlipped() {
+        // Les cartes sont immuables : flipped() renvoie l'autre exemplaire partagé
+        Card c = Card.of(Suit.DIAMONDS, 5, false);
         assertFalse(c.isFaceUp());
 
-        c.flip();
-        assertTrue(c.isFaceUp());
+        Card up = c.flipped();
+        assertTrue(up.isFaceUp());
+        assertFalse(c.isFaceUp()); // L'original n'a pas bougé
 
-        c.flip();
-        assertFalse(c.isFaceUp());
+        assertSame(c, up.flipped());
+    }
+
+    @Test
+    void testInternedInstances() {
+        assertSame(Card.of(Suit.SPADES, 12, true), Card.of(Suit.SPADES, 12, true));
+        assertNotSame(Card.of(Suit.SPADES, 12, true), Card.of(Suit.SPADES, 12, false));
+        assertSame(Card.of(Suit.HEARTS, 1, true), Card.of(Suit.HEARTS.ordinal() * 13, true));
+
+        // Une carte créée avec new reste égale à son exemplaire partagé
+        assertEquals(new Card(Suit.SPADES, 12, true), Card.of(Suit.SPADES, 12, true));
+        assertEquals(Suit.SPADES.ordinal() * 13 + 11, Card.of(Suit.SPADES, 12, false).getCode());
+
+        assertThrows(IllegalArgumentException.class, () -> Card.of(Suit.SPADES, 14, true));
     }
 
     @Test
@@ -93,8 +107,8 @@ class CardTest {
         Card original = new Card(Suit.CLUBS, 2, true);
         Card cloned = original.clone();
 
-        assertNotSame(original, cloned);
-        assertEquals(original, cloned);
+        // Immuable : le clone est la carte elle-même
+        assertSame(original, cloned);
     }
 
     @Test
@@ -0,0 +1,261 @@
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactBoardTest {
+
+    @Test
+    void testRoundTrip_NewGame() {
+        Board board = new Board();
+        board.newGame(123L);
+
+        CompactBoard compact = CompactBoard.fromBoard(board);
+        assertEquals(TestBoards.describe(board), TestBoards.describe(compact.toBoard()));
+        assertEquals(24, compact.stockSize());
+        assertEquals(0, compact.wasteSize());
+        assertEquals(7, compact.columnSize(6));
+        assertEquals(6, compact.faceDownCount(6));
+    }
+
+    @Test
+    void testSameRulesAsBoard_RandomGames() {
+        // On joue des parties au hasard sur les deux représentations en parallèle :
+        // mêmes coups (même ordre) et même position après chaque coup.
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        for (long seed = 1; seed <= 20; seed++) {
+            Board board = new Board();
+            board.newGame(seed);
+            CompactBoard compact = CompactBoard.fromBoard(board);
+            Random random = new Random(seed);
+
+            for (int step = 0; step < 300 && !board.isGameWon(); step++) {
+                List<Move> moves = board.getValidMoves();
+                int count = compact.generateMoves(buffer);
+
+                assertEquals(moves.size(), count, "Seed " + seed + ", coup " + step);
+                for (int i = 0; i < count; i++) {
+                    assertEquals(PackedMove.fromMove(moves.get(i)), buffer[i]);
+                }
+                if (count == 0) break;
+
+                int chosen = random.nextInt(count);
+                board.applyMove(moves.get(chosen));
+                compact.applyMove(buffer[chosen]);
+
+                assertEquals(TestBoards.describe(board), TestBoards.describe(compact.toBoard()));
+                assertEquals(board.isGameWon(), compact.isGameWon());
+            }
+        }
+    }
+
+    @Test
+    void testCopyFrom_IsIndependent() {
+        Board board = new Board();
+        board.newGame(555L);
+        CompactBoard original = CompactBoard.fromBoard(board);
+
+        CompactBoard copy = original.copy();
+        copy.applyMove(PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1));
+
+        assertEquals(24, original.stockSize());
+        assertEquals(23, copy.stockSize());
+        assertEquals(1, copy.wasteSize());
+    }
+
+    @Test
+    void testRecycleKeepsStockOrder() {
+        Board board = new Board();
+        board.getStock().push(new Card(Suit.CLUBS, 5, false));
+        board.getStock().push(new Card(Suit.HEARTS, 9, false)); // Sommet de la pioche
+
+        CompactBoard compact = CompactBoard.fromBoard(board);
+        compact.applyMove(PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1));
+        compact.applyMove(PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1));
+        compact.applyMove(PackedMove.of(Move.MoveType.RECYCLE_WASTE, -1, -1, -1, 1));
+
+        board.applyMove(new Move(Move.MoveType.STOCK_TO_WASTE, null, -1, -1));
+        board.applyMove(new Move(Move.MoveType.STOCK_TO_WASTE, null, -1, -1));
+        board.applyMove(new Move(Move.MoveType.RECYCLE_WASTE, null, -1, -1));
+
+        assertEquals(TestBoards.describe(board), TestBoards.describe(compact.toBoard()));
+    }
+
+    @Test
+    void testHash_SamePositionSameHash() {
+        Board board = new Board();
+        board.newGame(77L);
+        CompactBoard start = CompactBoard.fromBoard(board);
+        CompactBoard compact = start.copy();
+        int draw = PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1);
+
+        compact.applyMove(draw);
+        assertNotEquals(start.hash(), compact.hash());
+
+        // Toute la pioche puis recyclage : on revient à la position de départ
+        while (compact.stockSize() > 0) compact.applyMove(draw);
+        compact.applyMove(PackedMove.of(Move.MoveType.RECYCLE_WASTE, -1, -1, -1, 1));
+        assertTrue(compact.samePosition(start));
+        assertEquals(start.hash(), compact.hash());
+
+        // Le hash ne dépend que de la position, pas de l'historique du plateau
+        assertEquals(compact.hash(), CompactBoard.fromBoard(compact.toBoard()).hash());
+    }
+
+    @Test
+    void testHash_IncrementalMatchesRecomputation() {
+        // Tous les coups (composés compris) et les coups sûrs tiennent le hash à jour :
+        // il reste égal à celui de la même position chargée depuis zéro
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        for (long seed = 1; seed <= 20; seed++) {
+            Board board = new Board();
+            board.newGame(seed);
+            CompactBoard compact = CompactBoard.fromBoard(board);
+            Random random = new Random(seed);
+            for (int step = 0; step < 200 && !compact.isGameWon(); step++) {
+                int count = step % 2 == 0 ? compact.generateMoves(moves) : compact.generateMacroMoves(moves);
+                if (count == 0) break;
+                compact.applyMove(moves[random.nextInt(count)]);
+                if (step % 5 == 0) compact.applySafeMoves();
+                assertEquals(CompactBoard.fromBoard(compact.toBoard()).hash(), compact.hash(), "Seed " + seed + ", coup " + step);
+                assertEquals(compact.hash(), compact.copy().hash());
+            }
+        }
+        assertEquals(new CompactBoard().hash(), CompactBoard.fromBoard(new Board()).hash());
+    }
+
+    @Test
+    void testApplySafeMoves() {
+        Board board = new Board();
+        board.getTableaux().get(0).addCard(Card.of(Suit.HEARTS, 5, false));
+        board.getTableaux().get(0).addCard(Card.of(Suit.CLUBS, 1, true));
+        board.getTableaux().get(1).addCard(Card.of(Suit.CLUBS, 2, true));
+        board.getTableaux().get(2).addCard(Card.of(Suit.CLUBS, 3, true));
+        board.getWaste().push(Card.of(Suit.DIAMONDS, 1, true));
+        CompactBoard compact = CompactBoard.fromBoard(board);
+
+        // As et 2 montent (l'As de trèfle découvre le 5 de cœur) ; le 3 de trèfle attend
+        // les deux 2 rouges, sinon un As rouge pourrait encore avoir besoin de lui
+        assertEquals(3, compact.applySafeMoves());
+        assertEquals(2, compact.foundationSize(Suit.CLUBS.ordinal()));
+        assertEquals(1, compact.foundationSize(Suit.DIAMONDS.ordinal()));
+        assertEquals(0, compact.faceDownCount(0));
+        assertEquals(1, compact.columnSize(2));
+        assertEquals(0, compact.wasteSize());
+        assertEquals(0, compact.applySafeMoves());
+    }
+
+    @Test
+    void testMacroMoves_SameAsDrawingThenPlaying() {
+        // Chaque coup composé mène à la position qu'on atteint en piochant (ou recyclant) jusqu'à la
+        // carte puis en la jouant ; les autres coups sont ceux de generateMoves, sans pioche ni recyclage
+        int[] macros = new int[PackedMove.MAX_MOVES];
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        for (long seed = 1; seed <= 20; seed++) {
+            Board board = new Board();
+            board.newGame(seed);
+            CompactBoard compact = CompactBoard.fromBoard(board);
+            Random random = new Random(seed);
+
+            for (int step = 0; step < 100 && !compact.isGameWon(); step++) {
+                int count = compact.generateMacroMoves(macros);
+                for (int i = 0; i < count; i++) {
+                    int macro = macros[i];
+                    Move.MoveType type = PackedMove.type(macro);
+                    assertNotEquals(Move.MoveType.STOCK_TO_WASTE, type);
+                    assertNotEquals(Move.MoveType.RECYCLE_WASTE, type);
+                    if (type != Move.MoveType.WASTE_TO_FOUNDATION && type != Move.MoveType.WASTE_TO_TABLEAU) {
+                        assertFalse(PackedMove.drawsFirst(macro));
+                    }
+
+                    CompactBoard expected = compact.copy();
+                    int plain = macro & ~PackedMove.drawingFirst(0);
+                    for (int draws = 0; !contains(buffer, expected.generateMoves(buffer), plain); draws++) {
+                        assertTrue(PackedMove.drawsFirst(macro), PackedMove.toString(macro));
+                        assertTrue(draws <= 2 * compact.stockSize() + 2 * compact.wasteSize());
+                        expected.applyMove(buffer[0]); // Piocher ou recycler
+                    }
+                    expected.applyMove(plain);
+
+                    CompactBoard actual = compact.copy();
+                    actual.applyMove(macro);
+                    assertTrue(actual.samePosition(expected), "Seed " + seed + ", " + PackedMove.toString(macro));
+                }
+                if (count == 0) break;
+                compact.applyMove(macros[random.nextInt(count)]);
+            }
+        }
+    }
+
+    @Test
+    void testPruneRedundantMoves() {
+        Board board = new Board();
+        board.getTableaux().get(0).addCard(Card.of(Suit.SPADES, 13, true));  // Roi seul dans sa colonne
+        board.getTableaux().get(1).addCard(Card.of(Suit.CLUBS, 5, false));
+        board.getTableaux().get(1).addCard(Card.of(Suit.HEARTS, 13, true));  // Roi sur une carte cachée
+        board.getTableaux().get(2).addCard(Card.of(Suit.SPADES, 10, true));
+        board.getTableaux().get(2).addCard(Card.of(Suit.HEARTS, 9, true));
+        board.getTableaux().get(5).addCard(Card.of(Suit.CLUBS, 10, true));
+        board.getTableaux().get(6).addCard(Card.of(Suit.DIAMONDS, 5, true));
+        for (int rank = 1; rank <= 4; rank++) board.getFoundations().get(0).addCard(Card.of(Suit.CLUBS, rank, true));
+        int[] moves = new int[PackedMove.MAX_MOVES];
+
+        // Rois vers les colonnes 3 et 4, 9 de cœur sur le 10 de trèfle, 4 de trèfle redescendu
+        CompactBoard compact = CompactBoard.fromBoard(board);
+        assertEquals(6, compact.generateMoves(moves));
+        assertEquals(1, compact.pruneRedundantMoves(moves, 6));
+        assertEquals(PackedMove.of(Move.MoveType.TABLEAU_TO_TABLEAU, Card.of(Suit.HEARTS, 13, true).getCode(), 1, 3, 1), moves[0]);
+
+        // Le 10 de pique découvert pourra recevoir le 9 de carreau de la pioche : le 9 de cœur peut partir
+        board.getStock().push(Card.of(Suit.DIAMONDS, 9, false));
+        compact = CompactBoard.fromBoard(board);
+        int count = compact.generateMoves(moves);
+        assertEquals(3, compact.pruneRedundantMoves(moves, count));
+        assertEquals(Move.MoveType.STOCK_TO_WASTE, PackedMove.type(moves[0]));
+        assertEquals(PackedMove.of(Move.MoveType.TABLEAU_TO_TABLEAU, Card.of(Suit.HEARTS, 9, true).getCode(), 2, 5, 1), moves[2]);
+
+        // Jamais d'impasse : le seul coup légal reste, même dominé
+        Board stuck = new Board();
+        stuck.getTableaux().get(0).addCard(Card.of(Suit.DIAMONDS, 5, true));
+        for (int rank = 1; rank <= 4; rank++) stuck.getFoundations().get(0).addCard(Card.of(Suit.CLUBS, rank, true));
+        compact = CompactBoard.fromBoard(stuck);
+        assertEquals(1, compact.generateMoves(moves));
+        assertEquals(1, compact.pruneRedundantMoves(moves, 1));
+        assertEquals(Move.MoveType.FOUNDATION_TO_TABLEAU, PackedMove.type(moves[0]));
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) if (moves[i] == move) return true;
+        return false;
+    }
+
+    @Test
+    void testIsGameWon() {
+        Board board = new Board();
+        for (Foundation f : board.getFoundations()) {
+            for (int rank = 1; rank <= 13; rank++) f.addCard(new Card(f.getSuit(), rank, true));
+        }
+        assertTrue(CompactBoard.fromBoard(board).isGameWon());
+        assertFalse(new CompactBoard().isGameWon());
+    }
+
+    @Test
+    void testLoad_RejectsUnorderedFoundation() {
+        Board board = new Board();
+        board.getFoundations().get(0).addCard(new Card(Suit.CLUBS, 3, true)); // Pas d'As dessous
+
+        assertThrows(IllegalArgumentException.class, () -> CompactBoard.fromBoard(board));
+    }
+
+    @Test
+    void testLoad_RejectsHiddenCardAboveVisible() {
+        Board board = new Board();
+        board.getTableaux().get(0).addCard(new Card(Suit.CLUBS, 3, true));
+        board.getTableaux().get(0).addCard(new Card(Suit.HEARTS, 8, false));
+
+        assertThrows(IllegalArgumentException.class, () -> CompactBoard.fromBoard(board));
+    }
+}
@@ -54,6 +54,27 @@ class MCTSSolverCoverageTest {
         assertEquals(-100, solver.evaluateMoveImmediateValue(board, mRecycle));
     }
 
+    @Test
+    void testEvaluateMove_CompactTableMatchesBoard() {
+        // Paramètres non entiers : la table précalculée doit arrondir comme le calcul direct
+        AIParams params = new AIParams(1000.7, 499.6, 50.5, 70.3, 100.45, -5.0, -10.9, -100.2, -9e22);
+        MCTSSolver solver = new MCTSSolver(params, 10);
+        for (long seed = 1; seed <= 20; seed++) {
+            Board board = new Board();
+            board.newGame(seed);
+            for (int step = 0; step < 60; step++) {
+                List<Move> moves = board.getValidMoves();
+                if (moves.isEmpty()) break;
+                CompactBoard compact = CompactBoard.fromBoard(board);
+                for (Move m : moves) {
+                    assertEquals(solver.evaluateMoveImmediateValue(board, m),
+                            solver.evaluateMoveImmediateValue(compact, PackedMove.fromMove(m)), m.toString());
+                }
+                board.applyMove(solver.selectSimulationMove(board, moves));
+            }
+        }
+    }
+
     // ==========================================
     // 2. TESTS SIMULATION (Avec Mocking manuel)
     // ==========================================
@@ -83,6 +104,37 @@ class MCTSSolverCoverageTest {
         assertEquals(0.0, result);
     }
 
+    @Test
+    void testSimulate_CompactCycleDetection() {
+        // Rien ne peut monter ni se retourner : piocher, recycler et promener le Valet tourne en rond
+        Board board = TestBoards.circularPosition();
+
+        for (boolean detection : new boolean[] {true, false}) {
+            // Coups choisis par l'heuristique = pas de la simulation hors positions déjà vues
+            int[] steps = new int[1];
+            MCTSSolver solver = new MCTSSolver() {
+                @Override
+                public int selectSimulationMove(CompactBoard b, int[] moves, int count) {
+                    steps[0]++;
+                    return super.selectSimulationMove(b, moves, count);
+                }
+            }.setCycleDetection(detection);
+            assertEquals(detection, solver.isCycleDetection());
+            for (int i = 0; i < 50; i++) {
+                // Trois cartes visibles quoi qu'il arrive, que la simulation s'arrête tôt ou non
+                steps[0] = 0;
+                assertEquals(300.0, solver.simulateRandomGame(CompactBoard.fromBoard(board)));
+                if (detection) {
+                    // Quelques positions distinctes, puis abandon après les retours sans progrès
+                    assertTrue(steps[0] < 50, steps[0] + " pas");
+                } else {
+                    // Sans détection, la simulation tourne jusqu'à la profondeur maximale (100 coups)
+                    assertEquals(100, steps[0]);
+                }
+            }
+        }
+    }
+
     @Test
     void testSimulate_BlockedGame() {
         // Scénario : Bloqué immédiatement
@@ -1,7 +1,13 @@
 import core.*;
 import ia.*;
 import org.junit.jupiter.api.Test;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MCTSSolverTest {
@@ -83,4 +89,301 @@ class MCTSSolverTest {
         }
         assertEquals(100000, solver.calculateScore(board));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindBestMove_TreeMode_ReturnsAvailableMove() {
+        AIParams ucb = new AIParams();
+        AIParams puct = new AIParams();
+        puct.priorTemperature = 200.0;
+
+        for (AIParams params : List.of(ucb, puct)) {
+            MCTSSolver solver = new MCTSSolver(params, 300).setSearchMode(MCTSSolver.SearchMode.TREE);
+            assertEquals(MCTSSolver.SearchMode.TREE, solver.getSearchMode());
+            for (long seed = 1; seed <= 3; seed++) {
+                Board board = new Board();
+                board.newGame(seed);
+                Move best = solver.findBestMove(board);
+                assertLegalMove(board, best);
+            }
+        }
+    }
+
+    @Test
+    void testFindBestMove_TreeMode_AnyTranspositionTableSize() {
+        // Sans table, avec une table minuscule (remplacements constants) et avec la taille par défaut
+        for (int size : new int[] {0, 2, 1 << 14}) {
+            MCTSSolver solver = new MCTSSolver(new AIParams(), 300)
+                    .setSearchMode(MCTSSolver.SearchMode.TREE)
+                    .setTranspositionTableSize(size);
+            Board board = new Board();
+            board.newGame(8L);
+            Move best = solver.findBestMove(board);
+            assertLegalMove(board, best);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MCTSSolver().setTranspositionTableSize(-1));
+    }
+
+    @Test
+    void testFindBestMove_TreeMode_BothParallelisms() {
+        for (MCTSSolver.Parallelism parallelism : MCTSSolver.Parallelism.values()) {
+            for (int virtualLoss : new int[] {0, 3}) {
+                MCTSSolver solver = new MCTSSolver(new AIParams(), 300)
+                        .setSearchMode(MCTSSolver.SearchMode.TREE)
+                        .setParallelism(parallelism)
+                        .setVirtualLoss(virtualLoss);
+                Board board = new Board();
+                board.newGame(11L);
+                Move best = solver.findBestMove(board);
+                assertLegalMove(board, best);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MCTSSolver().setVirtualLoss(-1));
+    }
+
+    @Test
+    void testFindBestMove_TreeMode_FullArena() {
+        // Arène minuscule : l'arbre s'arrête de grandir mais la recherche va au bout
+        MCTSSolver solver = new MCTSSolver(new AIParams(), 300)
+                .setSearchMode(MCTSSolver.SearchMode.TREE)
+                .setArenaCapacity(3);
+        SearchSession session = new SearchSession(solver);
+        Board board = new Board();
+        board.newGame(12L);
+        for (int i = 0; i < 5; i++) {
+            Move best = session.findBestMove(board);
+            assertLegalMove(board, best);
+            board.applyMove(best);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MCTSSolver().setArenaCapacity(-1));
+    }
+
+    @Test
+    void testFindBestMove_StopsAtTimeBudget() {
+        // Budget de simulations illimité : seul le temps arrête la recherche
+        for (MCTSSolver.SearchMode mode : MCTSSolver.SearchMode.values()) {
+            MCTSSolver solver = new MCTSSolver().setSearchMode(mode);
+            Board board = new Board();
+            board.newGame(4L);
+            // Les deux coups évidents de cette donne, joués sans recherche
+            for (int i = 0; i < 2; i++) board.applyMove(solver.findBestMove(board, 0));
+
+            long start = System.nanoTime();
+            Move best = solver.findBestMove(board, Duration.ofMillis(100));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // La recherche va jusqu'à l'échéance ; la borne haute ne repère qu'un budget ignoré
+            // (large, pour les machines chargées et les pauses du GC ou du JIT)
+            assertLegalMove(board, best);
+            assertTrue(elapsedMillis >= 100, mode + " : " + elapsedMillis + " ms");
+            assertTrue(elapsedMillis < 5000, mode + " : " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void testFindBestMove_RolloutBudget() {
+        Board board = new Board();
+        board.newGame(4L);
+        MCTSSolver solver = new MCTSSolver();
+        // Un budget nul reste une réponse valide (premier coup non évident)
+        assertNotNull(solver.findBestMove(board, 0));
+        assertNotNull(solver.findBestMove(board, 20, Duration.ofSeconds(10)));
+        assertThrows(IllegalArgumentException.class, () -> solver.findBestMove(board, -1));
+    }
+
+    @Test
+    void testFindBestMove_SequentialHalving() {
+        MCTSSolver solver = new MCTSSolver(new AIParams(), 300)
+                .setRootAllocation(MCTSSolver.RootAllocation.SEQUENTIAL_HALVING)
+                .setMinSamplesPerMove(4);
+        assertEquals(MCTSSolver.RootAllocation.SEQUENTIAL_HALVING, solver.getRootAllocation());
+        for (long seed = 1; seed <= 3; seed++) {
+            Board board = new Board();
+            board.newGame(seed);
+            // Budget normal, budget plus petit que le minimum par coup, budget nul, temps seul
+            for (Move best : List.of(solver.findBestMove(board), solver.findBestMove(board, 3),
+                    solver.findBestMove(board, 0), solver.findBestMove(board, Duration.ofMillis(100)))) {
+                assertLegalMove(board, best);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> solver.setMinSamplesPerMove(0));
+    }
+
+    @Test
+    void testFindBestMove_SingleThreadAndDedicatedPool() {
+        // Donne 4 après ses deux coups évidents : la réponse demande une recherche
+        Board board = new Board();
+        board.newGame(4L);
+        for (int i = 0; i < 2; i++) board.applyMove(new MCTSSolver().findBestMove(board, 0));
+        Thread caller = Thread.currentThread();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (MCTSSolver.SearchMode mode : MCTSSolver.SearchMode.values()) {
+                // Threads qui ont fait les simulations de chaque recherche
+                for (int budget : new int[] {200, 20}) {
+                    Set<Thread> singleThreads = ConcurrentHashMap.newKeySet();
+                    Set<Thread> pooledThreads = ConcurrentHashMap.newKeySet();
+                    MCTSSolver single = recordingThreads(singleThreads).setSearchMode(mode).setSearchThreads(1);
+                    MCTSSolver pooled = recordingThreads(pooledThreads).setSearchMode(mode).setExecutor(pool);
+                    assertLegalMove(board, single.findBestMove(board, budget));
+                    assertLegalMove(board, pooled.findBestMove(board, budget));
+
+                    assertEquals(Set.of(caller), singleThreads, mode + ", " + budget);
+                    if (budget == 20) {
+                        // Trop peu de simulations pour plusieurs threads : tout reste sur le thread appelant
+                        assertEquals(Set.of(caller), pooledThreads, mode + ", " + budget);
+                    } else {
+                        // Sinon, uniquement les threads du pool dédié (le thread appelant n'en fait pas partie)
+                        assertFalse(pooledThreads.isEmpty());
+                        assertTrue(pooledThreads.size() <= 3, pooledThreads.size() + " threads");
+                        for (Thread t : pooledThreads) {
+                            assertTrue(t instanceof ForkJoinWorkerThread w && w.getPool() == pool, t.getName());
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MCTSSolver().setSearchThreads(-1));
+    }
+
+    // Solveur qui note les threads où tournent ses simulations
+    private static MCTSSolver recordingThreads(Set<Thread> threads) {
+        return new MCTSSolver(new AIParams(), 200) {
+            @Override
+            public int selectSimulationMove(CompactBoard board, int[] moves, int count) {
+                threads.add(Thread.currentThread());
+                return super.selectSimulationMove(board, moves, count);
+            }
+        };
+    }
+
+    @Test
+    void testFindBestMove_StockMacros() {
+        // Coups composés sous la racine : le coup joué reste un vrai coup, y compris quand la
+        // session promeut un nœud développé avec les coups composés
+        for (MCTSSolver.SearchMode mode : MCTSSolver.SearchMode.values()) {
+            MCTSSolver solver = new MCTSSolver(new AIParams(), 300).setSearchMode(mode)
+                    .setMoveModel(MCTSSolver.MoveModel.STOCK_MACROS);
+            assertEquals(MCTSSolver.MoveModel.STOCK_MACROS, solver.getMoveModel());
+            SearchSession session = new SearchSession(solver);
+            Board board = new Board();
+            board.newGame(6L);
+            for (int i = 0; i < 15 && !board.isGameWon(); i++) {
+                Move move = session.findBestMove(board);
+                if (move == null) break;
+                assertLegalMove(board, move);
+                board.applyMove(move);
+            }
+        }
+    }
+
+    @Test
+    void testMutate_PriorTemperatureCanLeaveZero() {
+        // Partant de UCB1 (température 0), l'entraîneur doit pouvoir atteindre PUCT, sans jamais passer sous 0
+        AIParams params = new AIParams();
+        assertEquals(0.0, params.priorTemperature);
+        boolean reachedPuct = false;
+        for (int i = 0; i < 50; i++) {
+            AIParams mutant = params.mutate();
+            assertTrue(mutant.priorTemperature >= 0);
+            reachedPuct |= mutant.priorTemperature > 0;
+        }
+        assertTrue(reachedPuct);
+    }
+
+    @Test
+    void testSearchScheduler_SplitsCoresBetweenGamesAndSearches() {
+        try (SearchScheduler few = new SearchScheduler(8, 2); SearchScheduler many = new SearchScheduler(8, 50)) {
+            assertEquals(2, few.getConcurrentGames());
+            assertEquals(4, few.getThreadsPerSearch());
+            assertEquals(8, many.getConcurrentGames());
+            assertEquals(1, many.getThreadsPerSearch());
+            assertEquals(1, many.configure(new MCTSSolver()).getSearchThreads());
+
+            // Chaque partie est jouée une fois, avec des recherches sur le pool du planificateur
+            AtomicInteger played = new AtomicInteger();
+            few.forEachGame(3, i -> {
+                Board board = new Board();
+                board.newGame(10L + i);
+                assertNotNull(few.configure(new MCTSSolver(new AIParams(), 100)).findBestMove(board));
+                played.incrementAndGet();
+            });
+            assertEquals(3, played.get());
+        }
+    }
+
+    @Test
+    void testEarlyStopping_SavesRolloutsWhenDecided() {
+        // Position où tous les coups mènent au même score : le choix est vite joué
+        Board board = TestBoards.circularPosition();
+
+        for (MCTSSolver.SearchMode mode : MCTSSolver.SearchMode.values()) {
+            MCTSSolver solver = new MCTSSolver(new AIParams(), 5000).setSearchMode(mode).setEarlyStopping(true);
+            assertNotNull(solver.findBestMove(board));
+            assertTrue(solver.getRolloutsSaved() > 0, mode + " : aucune simulation économisée");
+
+            MCTSSolver full = new MCTSSolver(new AIParams(), 500).setSearchMode(mode);
+            assertNotNull(full.findBestMove(board));
+            assertEquals(0, full.getRolloutsSaved());
+        }
+
+        // Temps seul : l'arrêt anticipé ne compte rien, il n'y avait pas de budget de simulations
+        for (MCTSSolver.Parallelism parallelism : MCTSSolver.Parallelism.values()) {
+            MCTSSolver timed = new MCTSSolver(new AIParams(), 5000).setSearchMode(MCTSSolver.SearchMode.TREE)
+                    .setParallelism(parallelism).setEarlyStopping(true);
+            assertNotNull(timed.findBestMove(board, Duration.ofMillis(200)));
+            assertEquals(0, timed.getRolloutsSaved(), parallelism.toString());
+        }
+    }
+
+    @Test
+    void testSearchSession_FlatModeKeepsNoTree() {
+        // Mode par défaut : la session ne fait que déléguer au solveur, sans arbre, mais compte ses simulations
+        Board board = new Board();
+        board.newGame(4L);
+        SearchSession session = new SearchSession(new MCTSSolver(new AIParams(), 100));
+        for (int i = 0; i < 5 && !board.isGameWon(); i++) {
+            Move move = session.findBestMove(board);
+            if (move == null) break;
+            board.applyMove(move);
+        }
+        // Des recherches complètes de 100 simulations (la donne 4 n'a que deux coups évidents au début)
+        assertTrue(session.getSimulationsRun() > 0, "Aucune simulation comptée");
+        assertEquals(0, session.getSimulationsRun() % 100);
+        assertEquals(0, session.getSimulationsReused());
+        assertEquals("", session.getMemoryReport());
+    }
+
+    @Test
+    void testSearchSession_ReusesSubtreeAfterMove() {
+        Board board = new Board();
+        board.newGame(4L);
+        SearchSession session = new SearchSession(new MCTSSolver(new AIParams(), 400).setSearchMode(MCTSSolver.SearchMode.TREE));
+
+        int played = 0;
+        for (int i = 0; i < 20 && !board.isGameWon(); i++) {
+            Move move = session.findBestMove(board);
+            if (move == null) break;
+            board.applyMove(move);
+            played++;
+        }
+        assertTrue(played > 0);
+        // Une partie de l'effort vient des recherches précédentes
+        assertTrue(session.getSimulationsReused() > 0, "Aucune simulation réutilisée");
+
+        assertTrue(session.getMemoryReport().startsWith("nœuds "), session.getMemoryReport());
+
+        // Position sans rapport : on repart de zéro sans erreur
+        Board other = new Board();
+        other.newGame(5L);
+        assertNotNull(session.findBestMove(other));
+    }
+
+    // Le coup renvoyé par la recherche est l'un des coups légaux de la position
+    private static void assertLegalMove(Board board, Move move) {
+        assertNotNull(move);
+        int packed = PackedMove.fromMove(move);
+        assertTrue(board.getValidMoves().stream().anyMatch(m -> PackedMove.fromMove(m) == packed), move.toString());
+    }
+}
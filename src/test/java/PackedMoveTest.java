@@ -0,0 +1,42 @@
+import core.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedMoveTest {
+
+    @Test
+    void testPackAndUnpack() {
+        int move = PackedMove.of(Move.MoveType.TABLEAU_TO_TABLEAU, 51, 6, 0, 13);
+
+        assertEquals(Move.MoveType.TABLEAU_TO_TABLEAU, PackedMove.type(move));
+        assertEquals(51, PackedMove.card(move));
+        assertEquals(6, PackedMove.source(move));
+        assertEquals(0, PackedMove.target(move));
+        assertEquals(13, PackedMove.length(move));
+    }
+
+    @Test
+    void testNoCardNoIndex() {
+        // La pioche n'a ni carte, ni source, ni cible
+        int move = PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1);
+
+        assertEquals(Move.MoveType.STOCK_TO_WASTE, PackedMove.type(move));
+        assertEquals(-1, PackedMove.card(move));
+        assertEquals(-1, PackedMove.source(move));
+        assertEquals(-1, PackedMove.target(move));
+    }
+
+    @Test
+    void testMoveConversion() {
+        Card queen = new Card(Suit.HEARTS, 12, true);
+        Move move = new Move(Move.MoveType.TABLEAU_TO_TABLEAU, queen, 2, 5).setSequenceLength(3);
+
+        Move back = PackedMove.toMove(PackedMove.fromMove(move));
+
+        assertEquals(move.getType(), back.getType());
+        assertEquals(queen, back.getCard());
+        assertEquals(2, back.getSourceIndex());
+        assertEquals(5, back.getTargetIndex());
+        assertEquals(3, back.getSequenceLength());
+    }
+}
@@ -0,0 +1,31 @@
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RulesTest {
+
+    @Test
+    void testStackTable_MatchesColourAndRankRule() {
+        for (int card = 0; card < 52; card++) {
+            Card c = Card.of(card, true);
+            long accepted = 0;
+            for (int onto = 0; onto < 52; onto++) {
+                Card o = Card.of(onto, true);
+                boolean expected = c.isRed() != o.isRed() && c.getRank() == o.getRank() - 1;
+                assertEquals(expected, Rules.canStack(card, onto), c + " sur " + o);
+                if (Rules.canStack(onto, card)) accepted |= Rules.bit(onto);
+            }
+            assertEquals(accepted, Rules.acceptedBy(card));
+            assertEquals(c.getRank() == 1 ? 0 : 2, Long.bitCount(Rules.acceptedBy(card)));
+            assertEquals(c.getRank() == 13, Rules.isKing(card));
+        }
+    }
+
+    @Test
+    void testFoundationNext() {
+        assertEquals(Card.of(Suit.HEARTS, 1, true).getCode(), Rules.foundationNext(Suit.HEARTS.ordinal(), 0));
+        assertEquals(Card.of(Suit.SPADES, 8, true).getCode(), Rules.foundationNext(Suit.SPADES.ordinal(), 7));
+        assertEquals(-1, Rules.foundationNext(Suit.CLUBS.ordinal(), 13));
+    }
+}
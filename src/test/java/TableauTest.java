@@ -86,4 +86,22 @@ class TableauTest {
         assertEquals(2, top2.get(0).getRank()); // Doit être le 2
         assertEquals(3, top2.get(1).getRank()); // Doit être le 3
     }
+
+    @Test
+    void testFaceDownCount() {
+        Tableau tableau = new Tableau();
+        tableau.addCard(Card.of(Suit.CLUBS, 10, false));
+        tableau.addCard(Card.of(Suit.HEARTS, 9, false));
+        tableau.addCard(Card.of(Suit.SPADES, 8, true));
+        assertEquals(2, tableau.getFaceDownCount());
+        assertEquals(1, tableau.getVisibleCount());
+
+        // On retire la carte visible : le compte ne change pas, la carte du dessus est cachée
+        tableau.removeTopCard();
+        assertEquals(2, tableau.getFaceDownCount());
+        assertEquals(0, tableau.getVisibleCount());
+
+        tableau.clear();
+        assertEquals(0, tableau.getFaceDownCount());
+    }
 }
\ No newline at end of file
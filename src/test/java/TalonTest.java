@@ -0,0 +1,132 @@
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TalonTest {
+
+    private static final Move DRAW = new Move(Move.MoveType.STOCK_TO_WASTE, null, -1, -1);
+    private static final Move RECYCLE = new Move(Move.MoveType.RECYCLE_WASTE, null, -1, -1);
+
+    @Test
+    void testFaceDependsOnSide() {
+        Board board = new Board();
+        board.getStock().push(new Card(Suit.CLUBS, 5, false));
+        board.getStock().push(new Card(Suit.HEARTS, 9, true)); // Rangée dans la pioche : face cachée
+
+        board.applyMove(DRAW);
+        assertEquals(List.of(Card.of(Suit.CLUBS, 5, false)), board.getStock());
+        assertEquals(List.of(Card.of(Suit.HEARTS, 9, true)), board.getWaste());
+        assertTrue(board.getWaste().peek().isFaceUp());
+    }
+
+    @Test
+    void testRecycle_SameHashAsFreshStock() {
+        // Après recyclage, la position doit avoir le même hash qu'une pioche posée à la main
+        Board played = new Board();
+        Board fresh = new Board();
+        for (int rank = 1; rank <= 6; rank++) {
+            played.getStock().push(Card.of(Suit.SPADES, rank, false));
+            fresh.getStock().push(Card.of(Suit.SPADES, rank, false));
+        }
+        long initial = played.getGameStateHash();
+
+        for (int i = 0; i < 4; i++) played.applyMove(DRAW);
+        assertNotEquals(initial, played.getGameStateHash());
+        for (int i = 0; i < 2; i++) played.applyMove(DRAW);
+        played.applyMove(RECYCLE);
+
+        assertEquals(fresh.getStock(), played.getStock());
+        assertTrue(played.getWaste().isEmpty());
+        assertEquals(fresh.getGameStateHash(), played.getGameStateHash());
+    }
+
+    @Test
+    void testListEdits_KeepHashUpToDate() {
+        Board board = new Board();
+        board.getStock().push(Card.of(Suit.CLUBS, 1, false));
+        board.getStock().push(Card.of(Suit.CLUBS, 2, false));
+        board.getWaste().push(Card.of(Suit.DIAMONDS, 3, true));
+        board.getWaste().add(0, Card.of(Suit.DIAMONDS, 4, true));
+        board.getStock().add(0, Card.of(Suit.HEARTS, 5, false));
+        board.getStock().remove(1);
+
+        assertEquals(List.of(Card.of(Suit.HEARTS, 5, false), Card.of(Suit.CLUBS, 2, false)), board.getStock());
+        assertEquals(List.of(Card.of(Suit.DIAMONDS, 4, true), Card.of(Suit.DIAMONDS, 3, true)), board.getWaste());
+
+        long hash = board.getGameStateHash();
+        board.rehash();
+        assertEquals(hash, board.getGameStateHash());
+    }
+
+    @Test
+    void testWastePops_WithSnapshotsAndUndo_MatchListModel() {
+        // Les cartes retirées de la défausse laissent un trou dans le tableau partagé : pioches,
+        // recyclages et annulations doivent rester justes, et les copies ne pas bouger
+        Board board = new Board();
+        board.newGame(77L);
+        Random random = new Random(77L);
+        Deque<Integer> records = new ArrayDeque<>();
+        Deque<List<List<Integer>>> history = new ArrayDeque<>();
+        List<Integer> stock = codes(board.getStock());
+        List<Integer> waste = codes(board.getWaste());
+        Board snapshot = board.clone();
+        List<List<Integer>> atSnapshot = List.of(List.copyOf(stock), List.copyOf(waste));
+
+        for (int step = 0; step < 600; step++) {
+            if (!records.isEmpty() && random.nextInt(4) == 0) {
+                board.undoMove(records.pop());
+                List<List<Integer>> previous = history.pop();
+                stock = new ArrayList<>(previous.get(0));
+                waste = new ArrayList<>(previous.get(1));
+            } else {
+                List<Move> moves = board.getValidMoves();
+                if (moves.isEmpty()) break;
+                List<Move> talonMoves = moves.stream().filter(m -> m.getType() == Move.MoveType.STOCK_TO_WASTE
+                        || m.getType() == Move.MoveType.RECYCLE_WASTE
+                        || m.getType() == Move.MoveType.WASTE_TO_FOUNDATION
+                        || m.getType() == Move.MoveType.WASTE_TO_TABLEAU).toList();
+                if (!talonMoves.isEmpty() && random.nextInt(4) != 0) moves = talonMoves;
+                Move move = moves.get(random.nextInt(moves.size()));
+
+                history.push(List.of(List.copyOf(stock), List.copyOf(waste)));
+                records.push(board.applyMoveWithUndo(move));
+                switch (move.getType()) {
+                    case STOCK_TO_WASTE -> waste.add(stock.remove(stock.size() - 1));
+                    case RECYCLE_WASTE -> {
+                        Collections.reverse(waste);
+                        stock.addAll(waste);
+                        waste.clear();
+                    }
+                    case WASTE_TO_FOUNDATION, WASTE_TO_TABLEAU -> waste.remove(waste.size() - 1);
+                    default -> { }
+                }
+            }
+
+            assertEquals(stock, codes(board.getStock()), "Pas " + step);
+            assertEquals(waste, codes(board.getWaste()), "Pas " + step);
+            long hash = board.getGameStateHash();
+            board.rehash();
+            assertEquals(hash, board.getGameStateHash(), "Pas " + step);
+
+            assertEquals(atSnapshot, List.of(codes(snapshot.getStock()), codes(snapshot.getWaste())));
+            if (step % 50 == 0) {
+                snapshot = board.clone();
+                atSnapshot = List.of(List.copyOf(stock), List.copyOf(waste));
+            }
+        }
+    }
+
+    private static List<Integer> codes(List<Card> cards) {
+        List<Integer> codes = new ArrayList<>();
+        for (Card card : cards) codes.add(card.getCode());
+        return codes;
+    }
+}
@@ -0,0 +1,29 @@
+import core.*;
+
+// Aides communes aux tests de plateaux
+final class TestBoards {
+    private TestBoards() {
+    }
+
+    // Description complète d'un plateau (cartes et faces de chaque pile), pour comparer deux positions
+    static String describe(Board board) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("S").append(board.getStock()).append(board.getStock().stream().map(Card::isFaceUp).toList());
+        sb.append("W").append(board.getWaste()).append(board.getWaste().stream().map(Card::isFaceUp).toList());
+        for (Foundation f : board.getFoundations()) sb.append("F").append(f.getCards());
+        for (Tableau t : board.getTableaux()) sb.append("T").append(t.getCards()).append(t.getCards().stream().map(Card::isFaceUp).toList());
+        return sb.toString();
+    }
+
+    // Pioche 9♠ 9♥, tableaux Q♣, Q♦ et J♠ : rien ne peut monter ni se retourner, piocher, recycler et
+    // promener le Valet tourne en rond, et tous les coups mènent au même score (trois cartes visibles)
+    static Board circularPosition() {
+        Board board = new Board();
+        board.getStock().push(Card.of(Suit.SPADES, 9, false));
+        board.getStock().push(Card.of(Suit.HEARTS, 9, false));
+        board.getTableaux().get(0).addCard(Card.of(Suit.CLUBS, 12, true));
+        board.getTableaux().get(1).addCard(Card.of(Suit.DIAMONDS, 12, true));
+        board.getTableaux().get(2).addCard(Card.of(Suit.SPADES, 11, true));
+        return board;
+    }
+}
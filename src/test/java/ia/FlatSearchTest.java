@@ -0,0 +1,168 @@
+package ia;
+
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Mode FLAT : répartition des simulations entre les coups de la racine
+class FlatSearchTest {
+
+    // Solveur dont la simulation renvoie un score fixé par le premier coup joué (reconnu à sa position)
+    private static final class ScriptedSolver extends MCTSSolver {
+        final Map<Long, Double> scoreAfter = new HashMap<>();
+
+        ScriptedSolver(AIParams params, int threads) {
+            super(params, 100);
+            setSearchThreads(threads);
+        }
+
+        @Override
+        double simulateRandomGame(CompactBoard board, int[] moves, PositionSet seen) {
+            return scoreAfter.get(board.hash());
+        }
+    }
+
+    @Test
+    void testSequentialHalving_RoundsHalveCandidatesAndPickBestSurvivor() {
+        AIParams params = new AIParams();
+        params.stockPenalty = 0; // Moyennes = scores simulés, sans la pénalité de la pioche
+        ScriptedSolver solver = new ScriptedSolver(params, 1);
+        solver.setMinSamplesPerMove(5);
+
+        // Une ouverture avec au moins 5 coups à départager
+        CompactBoard root = null;
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        int n = 0;
+        for (long seed = 1; n < 5; seed++) {
+            Board board = new Board();
+            board.newGame(seed);
+            root = CompactBoard.fromBoard(board);
+            n = solver.generateMoves(root, buffer);
+        }
+        int[] moves = Arrays.copyOf(buffer, n);
+
+        // Scores distincts, sans lien avec l'ordre des coups
+        double[] score = new double[n];
+        for (int i = 0; i < n; i++) {
+            score[i] = 100 + (i * 7 % n) * 10;
+            CompactBoard after = root.copy();
+            solver.play(after, moves[i]);
+            solver.scoreAfter.put(after.hash(), score[i]);
+        }
+        assertEquals(n, solver.scoreAfter.size());
+
+        MCTSSolver.RootStats stats = new MCTSSolver.RootStats(1, n);
+        int chosen = solver.sequentialHalving(root, moves, 40 * n, MCTSSolver.NO_DEADLINE, stats);
+
+        // Premier tour : chaque coup a au moins le minimum de simulations
+        Integer[] byScore = new Integer[n];
+        for (int i = 0; i < n; i++) byScore[i] = i;
+        Arrays.sort(byScore, (a, b) -> Double.compare(score[b], score[a]));
+        for (int i = 0; i < n; i++) assertTrue(stats.counts[i] >= 5, "Coup " + i + " : " + stats.counts[i]);
+
+        // Chaque tour garde la meilleure moitié : parmi les 'inPlay' meilleurs coups, ceux qui ont
+        // été simulés plus que le moins simulé d'entre eux sont exactement les (inPlay + 1) / 2 premiers
+        int rounds = 32 - Integer.numberOfLeadingZeros(n - 1);
+        int inPlay = n;
+        for (int round = 0; round < rounds - 1; round++) {
+            int fewest = Integer.MAX_VALUE;
+            for (int i = 0; i < inPlay; i++) fewest = Math.min(fewest, stats.counts[byScore[i]]);
+            int next = (inPlay + 1) / 2;
+            for (int i = 0; i < inPlay; i++) {
+                assertEquals(i < next, stats.counts[byScore[i]] > fewest, "Tour " + round + ", rang " + i);
+            }
+            inPlay = next;
+        }
+
+        // Le coup choisi a la meilleure moyenne parmi les survivants du dernier tour
+        int best = byScore[0];
+        for (int i = 0; i < inPlay; i++) {
+            int move = byScore[i];
+            double mean = stats.scores[move] / stats.counts[move];
+            assertEquals(score[move], mean);
+            if (mean > stats.scores[best] / stats.counts[best]) best = move;
+        }
+        assertEquals(best, chosen);
+        assertEquals(byScore[0], chosen);
+        // Tout le budget est dépensé, au reste de la division du dernier tour près
+        int spent = Arrays.stream(stats.counts).sum();
+        assertTrue(spent <= 40 * n && spent > 40 * n - inPlay, spent + " simulations");
+    }
+
+    @Test
+    void testRootStats_CombineSumsThreadRowsExactly() {
+        // Scores entiers : les sommes en double sont exactes, quel que soit l'ordre des additions
+        int threads = 4;
+        int moves = 3;
+        MCTSSolver.RootStats stats = new MCTSSolver.RootStats(threads, moves);
+        double[] expectedScores = new double[moves];
+        double[] expectedSquares = new double[moves];
+        int[] expectedCounts = new int[moves];
+        for (int round = 1; round <= 3; round++) {
+            // Chaque thread remplit sa ligne, en parallèle
+            int r = round;
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers[t] = new Thread(() -> {
+                    for (int k = 0; k < 100; k++) stats.add(thread, k % moves, r * 1000 + thread * 10 + k);
+                });
+                workers[t].start();
+            }
+            for (Thread w : workers) assertDoesNotThrow(() -> w.join());
+            for (int t = 0; t < threads; t++) {
+                for (int k = 0; k < 100; k++) {
+                    double score = r * 1000 + t * 10 + k;
+                    expectedScores[k % moves] += score;
+                    expectedSquares[k % moves] += score * score;
+                    expectedCounts[k % moves]++;
+                }
+            }
+
+            // Après chaque tour, les totaux couvrent tous les tours précédents, sans double compte
+            stats.combine();
+            stats.combine();
+            assertArrayEquals(expectedScores, stats.scores);
+            assertArrayEquals(expectedSquares, stats.squares);
+            assertArrayEquals(expectedCounts, stats.counts);
+        }
+    }
+
+    @Test
+    void testSequentialHalving_ThreadRowsAddUpOverRounds() {
+        // Mêmes totaux quel que soit le thread qui a fait chaque simulation, sur tous les tours
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ScriptedSolver solver = new ScriptedSolver(new AIParams(), 3);
+            solver.setExecutor(pool);
+            Board board = new Board();
+            board.newGame(3L);
+            CompactBoard root = CompactBoard.fromBoard(board);
+            int[] buffer = new int[PackedMove.MAX_MOVES];
+            int[] moves = Arrays.copyOf(buffer, solver.generateMoves(root, buffer));
+            for (int i = 0; i < moves.length; i++) {
+                CompactBoard after = root.copy();
+                solver.play(after, moves[i]);
+                solver.scoreAfter.put(after.hash(), 100.0 + i);
+            }
+
+            MCTSSolver.RootStats stats = new MCTSSolver.RootStats(3, moves.length);
+            solver.sequentialHalving(root, moves, 600, MCTSSolver.NO_DEADLINE, stats);
+            int total = 0;
+            for (int i = 0; i < moves.length; i++) {
+                assertEquals((100.0 + i) * stats.counts[i], stats.scores[i]);
+                assertEquals((100.0 + i) * (100.0 + i) * stats.counts[i], stats.squares[i]);
+                total += stats.counts[i];
+            }
+            assertTrue(total > 600 - moves.length && total <= 600, total + " simulations");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
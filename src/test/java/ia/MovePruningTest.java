@@ -0,0 +1,58 @@
+package ia;
+
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Élagage des coups (setMovePruning) : les coups de la racine cherchés par les deux modes
+class MovePruningTest {
+
+    // Pas de coup évident ; sur six coups, seuls la pioche et le 9 de cœur sur le 10 de trèfle restent
+    // (Roi seul vers une colonne vide, 4 de trèfle redescendu : élagués)
+    private static Board position() {
+        Board board = new Board();
+        board.getTableaux().get(0).addCard(Card.of(Suit.SPADES, 13, true));
+        board.getTableaux().get(2).addCard(Card.of(Suit.SPADES, 10, true));
+        board.getTableaux().get(2).addCard(Card.of(Suit.HEARTS, 9, true));
+        board.getTableaux().get(5).addCard(Card.of(Suit.CLUBS, 10, true));
+        board.getTableaux().get(6).addCard(Card.of(Suit.DIAMONDS, 5, true));
+        for (int rank = 1; rank <= 4; rank++) board.getFoundations().get(0).addCard(Card.of(Suit.CLUBS, rank, true));
+        board.getStock().push(Card.of(Suit.DIAMONDS, 9, false));
+        return board;
+    }
+
+    @Test
+    void testRootMoves_WithAndWithoutPruning() {
+        Board board = position();
+        CompactBoard root = CompactBoard.fromBoard(board);
+        int[] buffer = new int[PackedMove.MAX_MOVES];
+        List<Integer> legal = board.getValidMoves().stream().map(PackedMove::fromMove).toList();
+        List<Integer> kept = List.of(PackedMove.of(Move.MoveType.STOCK_TO_WASTE, -1, -1, -1, 1),
+                PackedMove.of(Move.MoveType.TABLEAU_TO_TABLEAU, Card.of(Suit.HEARTS, 9, true).getCode(), 2, 5, 1));
+        assertNull(new MCTSSolver().instinctMove(board, board.getValidMoves()));
+
+        for (boolean pruning : new boolean[] {true, false}) {
+            int expected = pruning ? 2 : 6;
+            MCTSSolver solver = new MCTSSolver(new AIParams(), 200).setMovePruning(pruning);
+            assertEquals(pruning, solver.isMovePruning());
+
+            // FLAT : coups entre lesquels les simulations sont réparties
+            assertEquals(expected, solver.generateMoves(root, buffer));
+            if (pruning) assertEquals(kept, List.of(buffer[0], buffer[1]));
+
+            // TREE : fils de la racine
+            UctTree tree = solver.newTree(root);
+            tree.search(200);
+            assertEquals(expected, tree.rootChildCount());
+
+            // Avec l'élagage, les deux modes ne peuvent choisir qu'un coup gardé
+            for (MCTSSolver.SearchMode mode : MCTSSolver.SearchMode.values()) {
+                int best = PackedMove.fromMove(solver.setSearchMode(mode).findBestMove(board));
+                assertTrue((pruning ? kept : legal).contains(best), mode + " : " + PackedMove.toString(best));
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ia;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tests du paquet ia : NodeArena et TranspositionTable ne sont pas publiques
+class NodeArenaTest {
+
+    // Racine -> (A, B), A -> C et B -> C (transposition), plus des nœuds abandonnés autour
+    @Test
+    void testCompact_KeepsSubtreeStatisticsAndRemapsTable() {
+        NodeArena arena = new NodeArena(16, 64);
+        TranspositionTable table = new TranspositionTable(64);
+
+        int oldRoot = arena.newNode();
+        int lost = arena.newNode();              // Branche abandonnée
+        int root = arena.newNode();
+        int a = arena.newNode();
+        int lostChild = arena.newNode();
+        int b = arena.newNode();
+        int c = arena.newNode();
+
+        link(arena, oldRoot, new int[] {101, 102}, lost, root);
+        link(arena, lost, new int[] {103}, lostChild);
+        link(arena, root, new int[] {201, 202, 203}, a, b, NodeArena.NONE); // Le troisième arc jamais visité
+        link(arena, a, new int[] {301}, c);
+        link(arena, b, new int[] {302}, c);
+
+        double[] scores = {10, 20, 30, 40, 50, 60, 70};
+        int[] nodes = {oldRoot, lost, root, a, lostChild, b, c};
+        for (int i = 0; i < nodes.length; i++) {
+            for (int v = 0; v <= i; v++) arena.addVisit(nodes[i], scores[i] + v);
+        }
+        table.store(1, 2, a);
+        table.store(2, 3, c);
+        table.store(3, 2, lost);
+        table.store(4, 3, lostChild);
+
+        int newRoot = arena.compact(root, table);
+
+        assertEquals(4, arena.nodeCount());
+        assertEquals(5, arena.edgeCount());
+        assertSameNode(arena, newRoot, 3, 30 * 3 + 3, new int[] {201, 202, 203});
+        int newA = arena.child(arena.firstEdge(newRoot));
+        int newB = arena.child(arena.firstEdge(newRoot) + 1);
+        assertEquals(NodeArena.NONE, arena.child(arena.firstEdge(newRoot) + 2));
+        assertSameNode(arena, newA, 4, 40 * 4 + 6, new int[] {301});
+        assertSameNode(arena, newB, 6, 60 * 6 + 15, new int[] {302});
+
+        // C est toujours partagé par A et B, avec ses statistiques
+        int newC = arena.child(arena.firstEdge(newA));
+        assertEquals(newC, arena.child(arena.firstEdge(newB)));
+        assertSameNode(arena, newC, 7, 70 * 7 + 21, null);
+        assertEquals(70.0 * 70 * 7 + 2 * 70 * 21 + 91, arena.valueSquares(newC));
+        assertEquals(0.5f, arena.prior(arena.firstEdge(newRoot)));
+
+        // La table renvoie les nœuds déplacés, et oublie les nœuds abandonnés
+        assertEquals(newA, table.find(1, 2));
+        assertEquals(newC, table.find(2, 3));
+        assertEquals(NodeArena.NONE, table.find(3, 2));
+        assertEquals(NodeArena.NONE, table.find(4, 3));
+
+        // Les nouvelles allocations suivent les nœuds gardés
+        assertEquals(4, arena.newNode());
+    }
+
+    // Donne au nœud un arc par coup ; children[i] devient le fils du i-ème arc (NONE = pas de fils)
+    private static void link(NodeArena arena, int node, int[] moves, int... children) {
+        int first = arena.newEdges(moves.length);
+        for (int i = 0; i < moves.length; i++) {
+            arena.setEdge(first + i, moves[i], 0.5f);
+            if (children[i] != NodeArena.NONE) arena.setChild(first + i, children[i]);
+        }
+        assertTrue(arena.publishEdges(node, first, moves.length));
+    }
+
+    // moves null : nœud jamais développé
+    private static void assertSameNode(NodeArena arena, int node, int visits, double valueSum, int[] moves) {
+        assertEquals(visits, arena.visits(node));
+        assertEquals(valueSum, arena.valueSum(node));
+        assertEquals(moves != null, arena.isExpanded(node));
+        if (moves == null) return;
+        assertEquals(moves.length, arena.edgeCount(node));
+        for (int i = 0; i < moves.length; i++) assertEquals(moves[i], arena.move(arena.firstEdge(node) + i));
+    }
+}
@@ -0,0 +1,67 @@
+package ia;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionSetTest {
+
+    @Test
+    void testAdd_DetectsDuplicates() {
+        PositionSet set = new PositionSet(16);
+        assertTrue(set.add(42L));
+        assertTrue(set.add(-7L));
+        assertFalse(set.add(42L));
+        assertFalse(set.add(-7L));
+
+        // Même case de départ (bits hauts et bas repliés) : la deuxième clé passe à la case suivante
+        long a = 3L;
+        long b = (1L << 32) | 2L;
+        assertTrue(set.add(a));
+        assertTrue(set.add(b));
+        assertFalse(set.add(a));
+        assertFalse(set.add(b));
+    }
+
+    @Test
+    void testClear_ForgetsEverything() {
+        PositionSet set = new PositionSet(16);
+        for (long key = 0; key < 10; key++) assertTrue(set.add(key * 31));
+        set.clear();
+        for (long key = 0; key < 10; key++) assertTrue(set.add(key * 31), "Clé " + key);
+        assertFalse(set.add(0));
+    }
+
+    @Test
+    void testClear_GenerationWrapResetsSlots() throws ReflectiveOperationException {
+        PositionSet set = new PositionSet(4);
+        assertTrue(set.add(1));
+        // Dernière génération avant le retour à zéro
+        Field generation = PositionSet.class.getDeclaredField("generation");
+        generation.setAccessible(true);
+        generation.setInt(set, -1);
+        assertTrue(set.add(2));
+        assertFalse(set.add(2));
+
+        set.clear(); // La génération repasse à 1, celle de la clé 1 : les cases doivent être effacées
+        assertEquals(1, generation.getInt(set));
+        assertTrue(set.add(1));
+        assertTrue(set.add(2));
+    }
+
+    @Test
+    void testAdd_FullSetStartsOver() {
+        // 4 positions demandées : 8 cases, gardées à moitié vides
+        PositionSet set = new PositionSet(4);
+        for (long key = 1; key <= 3; key++) assertTrue(set.add(key));
+        for (long key = 1; key <= 3; key++) assertFalse(set.add(key));
+        assertTrue(set.add(4));
+
+        // Plein : l'ajout suivant vide l'ensemble, les anciennes clés ne sont plus des doublons
+        assertTrue(set.add(1));
+        assertFalse(set.add(1));
+        assertTrue(set.add(4));
+    }
+}
@@ -0,0 +1,40 @@
+package ia;
+
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeSearchTest {
+
+    private static CompactBoard openingPosition(long seed) {
+        Board board = new Board();
+        board.newGame(seed);
+        return CompactBoard.fromBoard(board);
+    }
+
+    @Test
+    void testNewSearch_RootParallelismCapsTreesLikeThreads() {
+        // Un arbre par tranche de simulations suffisante, comme les threads des modes TREE et FLAT
+        int[][] expected = {{10, 1}, {40, 2}, {1000, 4}}; // Simulations, arbres
+        for (int[] e : expected) {
+            int simulations = e[0];
+            MCTSSolver solver = new MCTSSolver(new AIParams(), simulations)
+                    .setParallelism(MCTSSolver.Parallelism.ROOT)
+                    .setSearchThreads(4);
+            TreeSearch search = solver.newSearch(openingPosition(5L));
+            assertEquals(e[1], search.treeCount(), simulations + " simulations");
+            assertEquals(simulations, search.search(simulations, MCTSSolver.NO_DEADLINE));
+            // Les visites des arbres s'additionnent, et le coup choisi est le plus visité au total
+            assertEquals(simulations, search.rootVisits());
+            long total = 0;
+            int best = search.bestChildIndex();
+            for (int i = 0; i < search.rootChildCount(); i++) {
+                long visits = search.rootChildVisits(i);
+                total += visits;
+                assertTrue(visits <= search.rootChildVisits(best), "Coup " + i);
+            }
+            assertEquals(simulations, total);
+        }
+    }
+}
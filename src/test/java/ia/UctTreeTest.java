@@ -0,0 +1,149 @@
+package ia;
+
+import core.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UctTreeTest {
+    private static final int VIRTUAL_LOSS = 3;
+
+    // Perte virtuelle totale posée dans l'arbre
+    private static int totalVirtualLoss(NodeArena arena) {
+        int total = 0;
+        for (int n = 0; n < arena.nodeCount(); n++) total += arena.virtualLoss(n);
+        return total;
+    }
+
+    private static CompactBoard openingPosition(long seed) {
+        Board board = new Board();
+        board.newGame(seed);
+        return CompactBoard.fromBoard(board);
+    }
+
+    @Test
+    void testSearch_VirtualLossAppliedDuringDescentThenReverted() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threads : new int[] {1, 4}) {
+                // Pendant chaque simulation, le chemin qui y mène porte la perte virtuelle (au moins son
+                // premier nœud sous la racine) ; seul le thread de la simulation compte avec un thread
+                AtomicReference<UctTree> tree = new AtomicReference<>();
+                AtomicInteger minSeen = new AtomicInteger(Integer.MAX_VALUE);
+                AtomicInteger notMultiple = new AtomicInteger();
+                MCTSSolver solver = new MCTSSolver(new AIParams(), 300) {
+                    @Override
+                    double simulateRandomGame(CompactBoard board, int[] moves, PositionSet seen) {
+                        int total = totalVirtualLoss(tree.get().arena());
+                        minSeen.accumulateAndGet(total, Math::min);
+                        if (total % VIRTUAL_LOSS != 0) notMultiple.incrementAndGet();
+                        return super.simulateRandomGame(board, moves, seen);
+                    }
+                }.setVirtualLoss(VIRTUAL_LOSS).setExecutor(pool);
+                tree.set(solver.newTree(openingPosition(11L)));
+
+                assertEquals(300, tree.get().search(300, MCTSSolver.NO_DEADLINE, threads));
+                assertTrue(minSeen.get() >= VIRTUAL_LOSS, threads + " threads : " + minSeen.get());
+                assertEquals(0, notMultiple.get());
+
+                // Toutes les descentes sont terminées : plus aucune perte virtuelle
+                assertEquals(0, totalVirtualLoss(tree.get().arena()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSearch_RootVisitsMatchCompletedSimulations() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MCTSSolver solver = new MCTSSolver(new AIParams(), 400).setExecutor(pool);
+            UctTree tree = solver.newTree(openingPosition(11L));
+
+            int done = tree.search(400, MCTSSolver.NO_DEADLINE, 4);
+            assertEquals(400, done);
+            assertEquals(done, tree.rootVisits());
+            // Chaque itération passe par exactement un fils de la racine
+            int childVisits = 0;
+            for (int i = 0; i < tree.rootChildCount(); i++) childVisits += tree.rootChildVisits(i);
+            assertEquals(done, childVisits);
+
+            // Une deuxième recherche s'ajoute aux visites de la première
+            done += tree.search(100, MCTSSolver.NO_DEADLINE, 4);
+            assertEquals(500, done);
+            assertEquals(done, tree.rootVisits());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testPuct_PriorsFollowHeuristicAndSteerVisits() {
+        // Cinq coups à la racine, dont au moins un moins bon que les autres pour l'heuristique
+        CompactBoard position = openingPosition(15L);
+        AIParams ucb = new AIParams();
+        AIParams puct = new AIParams();
+        puct.priorTemperature = 1.0; // Très froid : le poids va aux meilleurs coups heuristiques
+
+        int[] bestVisits = new int[2];
+        for (int k = 0; k < 2; k++) {
+            AIParams params = k == 0 ? ucb : puct;
+            MCTSSolver solver = new MCTSSolver(params, 400).setSearchThreads(1);
+            UctTree tree = solver.newTree(position);
+            assertEquals(400, tree.search(400, MCTSSolver.NO_DEADLINE, 1));
+
+            int count = tree.rootChildCount();
+            int[] value = new int[count];
+            int best = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                value[i] = solver.evaluateMoveImmediateValue(position, tree.rootChildMove(i));
+                best = Math.max(best, value[i]);
+            }
+
+            // Priors de la racine (premier nœud de l'arène) : uniformes en UCB1, softmax de l'heuristique en PUCT
+            NodeArena arena = tree.arena();
+            int first = arena.firstEdge(0);
+            double sum = 0;
+            boolean worse = false;
+            for (int i = 0; i < count; i++) {
+                float prior = arena.prior(first + i);
+                sum += prior;
+                worse |= value[i] < best;
+                if (params == ucb) assertEquals(1.0f / count, prior, 1e-6);
+                else assertEquals(value[i] == best, prior > 0.1, "Coup " + i + ", prior " + prior);
+                if (value[i] == best) bestVisits[k] += tree.rootChildVisits(i);
+            }
+            assertEquals(1.0, sum, 1e-5);
+            assertTrue(worse);
+        }
+        // PUCT concentre les visites sur les coups de plus grand prior (UCB1 en donne une part à chaque coup)
+        assertTrue(bestVisits[1] > 160 && bestVisits[1] > bestVisits[0],
+                bestVisits[1] + " visites en PUCT, " + bestVisits[0] + " en UCB1");
+    }
+
+    @Test
+    void testTranspositionTable_SharesNodesBetweenPaths() {
+        // Sans table, chaque itération ajoute au plus un nœud ; avec, les positions retrouvées par un
+        // autre chemin réutilisent le nœud existant, même avec une table minuscule
+        int nodesWithoutTable = 0;
+        for (int size : new int[] {0, 2, 1 << 14}) {
+            MCTSSolver solver = new MCTSSolver(new AIParams(), 1000).setSearchThreads(1).setTranspositionTableSize(size);
+            UctTree tree = solver.newTree(openingPosition(8L));
+            assertEquals(1000, tree.search(1000, MCTSSolver.NO_DEADLINE, 1));
+            assertEquals(1000, tree.rootVisits());
+            int nodes = tree.arena().nodeCount();
+            if (size == 0) {
+                assertEquals(0, tree.transpositionHits());
+                nodesWithoutTable = nodes;
+            } else {
+                assertTrue(tree.transpositionHits() > 0, "Table de " + size);
+                assertTrue(nodes < nodesWithoutTable, nodes + " nœuds, " + nodesWithoutTable + " sans table");
+            }
+        }
+    }
+}